@@ -0,0 +1,58 @@
+package de.coerdevelopment.timetracker.security;
+
+import de.coerdevelopment.timetracker.user.UserSnapshot;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issuing and verification, with and without the claims cache.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+    private static final String SECRET = "benchmark-secret-with-at-least-32-bytes";
+
+    private final UserSnapshot user = new UserSnapshot(42L, "benchmark", "{bcrypt}", "USER", 0);
+    private JwtService cached;
+    // TTL 0: jeder Eintrag verfällt sofort, jeder Aufruf parst und prüft die Signatur
+    private JwtService uncached;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        cached = new JwtService(SECRET, 900, 10_000, 600, new SimpleMeterRegistry());
+        uncached = new JwtService(SECRET, 900, 10_000, 0, new SimpleMeterRegistry());
+        token = cached.generateToken(user);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return cached.generateToken(user);
+    }
+
+    @Benchmark
+    public Claims extractAllClaimsCached() {
+        return cached.extractAllClaims(token);
+    }
+
+    @Benchmark
+    public Claims extractAllClaimsUncached() {
+        return uncached.extractAllClaims(token);
+    }
+}
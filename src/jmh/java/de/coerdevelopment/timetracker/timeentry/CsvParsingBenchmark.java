@@ -0,0 +1,59 @@
+package de.coerdevelopment.timetracker.timeentry;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-row hot paths of the CSV import: header normalization and the date/time parsers.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CsvParsingBenchmark {
+    private final String[] header = {"Username", "Subject", "Description", "Date Worked", "Minutes_Worked", "createdAt", "updated-at"};
+    private final String[] dates = {"2024-03-15", "15.03.2024", "03/15/2024"};
+    private final String[] instants = {"2024-03-15T08:30:00Z", "2024-03-15T08:30:00.123456+02:00", "2024-03-15T08:30", "2024-03-15"};
+    private final ZoneId zone = ZoneId.of("Europe/Berlin");
+
+    @Benchmark
+    public void normalizeKey(Blackhole bh) {
+        for (String key : header) bh.consume(CsvColumnPlan.normalizeKey(key));
+    }
+
+    @Benchmark
+    public CsvColumnPlan columnPlanFromHeader() {
+        return CsvColumnPlan.fromHeader(header);
+    }
+
+    @Benchmark
+    public void parseDate(Blackhole bh) {
+        for (String s : dates) {
+            LocalDate d = CsvFieldParser.parseDate(s);
+            bh.consume(d);
+        }
+    }
+
+    @Benchmark
+    public void parseInstant(Blackhole bh) {
+        for (String s : instants) {
+            Instant i = CsvFieldParser.parseInstant(s, zone);
+            bh.consume(i);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package de.coerdevelopment.timetracker.timeentry;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to DTO mapping of a list page.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TimeEntryMappingBenchmark {
+    @Param({"50", "200"})
+    private int size;
+
+    private List<TimeEntry> entries;
+
+    @Setup
+    public void setUp() {
+        Instant now = Instant.now();
+        LocalDate today = LocalDate.now();
+        entries = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            TimeEntry e = new TimeEntry();
+            e.setId((long) i);
+            e.setSubject("Subject " + i);
+            e.setDescription("Description " + i);
+            e.setDateWorked(today.minusDays(i));
+            e.setMinutesWorked(30 + i % 90);
+            e.setCreatedAt(now);
+            e.setUpdatedAt(now);
+            entries.add(e);
+        }
+    }
+
+    @Benchmark
+    public List<TimeEntryResponse> toResponseList() {
+        return entries.stream().map(TimeEntryService::toResponse).toList();
+    }
+}
@@ -0,0 +1,117 @@
+package de.coerdevelopment.timetracker.timeentry;
+
+import de.coerdevelopment.timetracker.TimeTrackerBackendApplication;
+import de.coerdevelopment.timetracker.user.User;
+import de.coerdevelopment.timetracker.user.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * List read path against H2 for a user with 50k entries: managed entities mapped in Java versus the
+ * constructor projection used by {@link TimeEntryRepository#findPage}. Run with {@code -prof gc} for allocations.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TimeEntryReadPathBenchmark {
+    private static final int ENTRIES = 50_000;
+    private static final LocalDate MIN_DATE = LocalDate.of(1, 1, 1);
+    private static final LocalDate MAX_DATE = LocalDate.of(9999, 12, 31);
+
+    // Default-Seitengröße, maximale Seitengröße und alle Einträge des Benutzers
+    @Param({"50", "200", "50000"})
+    private int size;
+
+    private ConfigurableApplicationContext context;
+    private TimeEntryRepository repository;
+    private EntityManager entityManager;
+    private TransactionTemplate readOnly;
+    private Long userId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(TimeTrackerBackendApplication.class)
+                .profiles("test")
+                .run("--server.port=0", "--logging.level.root=warn", "--spring.jpa.properties.hibernate.generate_statistics=false");
+        repository = context.getBean(TimeEntryRepository.class);
+        entityManager = context.getBean(EntityManager.class);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+
+        User user = new User();
+        user.setUsername("benchmark");
+        user.setPassword("{noop}benchmark");
+        userId = context.getBean(UserRepository.class).save(user).getId();
+
+        Timestamp now = Timestamp.from(Instant.now());
+        LocalDate today = LocalDate.now();
+        List<Object[]> rows = new ArrayList<>(ENTRIES);
+        for (int i = 0; i < ENTRIES; i++) {
+            rows.add(new Object[]{userId, "Subject " + i, "Description " + i, Date.valueOf(today.minusDays(i % 3650)),
+                    30 + i % 90, now, now});
+        }
+        context.getBean(JdbcTemplate.class).batchUpdate("insert into time_entries " +
+                "(user_id, subject, description, date_worked, minutes_worked, created_at, updated_at) " +
+                "values (?, ?, ?, ?, ?, ?, ?)", rows);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    // bisheriger Lesepfad: gleiche Query, aber Entities laden und Feld für Feld ins DTO kopieren
+    @Benchmark
+    public List<TimeEntryResponse> entities() {
+        return readOnly.execute(status -> entityManager.createQuery("select e from TimeEntry e where e.user.id = :userId " +
+                        "and e.dateWorked between :from and :to " +
+                        "and e.subject like :subjectPattern escape '\\' " +
+                        "and e.dateWorked <= :cursorDate " +
+                        "and (e.dateWorked < :cursorDate or e.id < :cursorId) " +
+                        "order by e.dateWorked desc, e.id desc", TimeEntry.class)
+                .setParameter("userId", userId)
+                .setParameter("from", MIN_DATE)
+                .setParameter("to", MAX_DATE)
+                .setParameter("subjectPattern", "%")
+                .setParameter("cursorDate", MAX_DATE)
+                .setParameter("cursorId", Long.MAX_VALUE)
+                .setMaxResults(size)
+                .getResultList()
+                .stream().map(TimeEntryService::toResponse).toList());
+    }
+
+    @Benchmark
+    public List<TimeEntryResponse> projection() {
+        return readOnly.execute(status -> repository.findPage(userId, MIN_DATE, MAX_DATE, "%",
+                MAX_DATE, Long.MAX_VALUE, Limit.of(size)));
+    }
+}
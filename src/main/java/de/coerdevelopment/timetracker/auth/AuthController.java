@@ -1,6 +1,7 @@
 package de.coerdevelopment.timetracker.auth;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
@@ -22,14 +23,29 @@ public class AuthController {
     @PostMapping("/register")
     @Operation(summary = "Registration")
     public ResponseEntity<AuthResponse> register(@RequestBody @Valid RegisterRequest request) {
-        String token = authService.register(request.username(), request.password());
-        return ResponseEntity.ok(new AuthResponse(token));
+        return ResponseEntity.ok(authService.register(request.username(), request.password()));
     }
 
     @PostMapping("/login")
     @Operation(summary = "Login")
     public ResponseEntity<AuthResponse> login(@RequestBody @Valid LoginRequest request) {
-        String token = authService.login(request.username(), request.password());
-        return ResponseEntity.ok(new AuthResponse(token));
+        return ResponseEntity.ok(authService.login(request.username(), request.password()));
+    }
+
+    @PostMapping("/refresh")
+    @Operation(summary = "Refresh access token",
+            description = "Exchanges a refresh token for a new token pair. Each refresh token is valid once; " +
+                    "presenting one that was already used revokes all tokens of that login.")
+    public ResponseEntity<AuthResponse> refresh(@RequestBody @Valid RefreshRequest request) {
+        return ResponseEntity.ok(authService.refresh(request.refreshToken()));
+    }
+
+    @PostMapping("/revoke")
+    @Operation(summary = "Revoke all tokens",
+            description = "Invalidates all tokens issued to the user so far (logout on all devices).")
+    @SecurityRequirement(name = "bearerAuth")
+    public ResponseEntity<Void> revoke() {
+        authService.revokeTokens();
+        return ResponseEntity.noContent().build();
     }
 }
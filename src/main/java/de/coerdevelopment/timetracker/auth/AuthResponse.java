@@ -1,4 +1,8 @@
 package de.coerdevelopment.timetracker.auth;
 
-public record AuthResponse(String token) {}
-
+/**
+ * @param token        access token for the Authorization header
+ * @param refreshToken single-use token for POST /api/auth/refresh
+ * @param expiresIn    lifetime of the access token in seconds
+ */
+public record AuthResponse(String token, String refreshToken, long expiresIn) {}
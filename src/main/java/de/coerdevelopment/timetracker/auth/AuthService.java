@@ -1,11 +1,17 @@
 package de.coerdevelopment.timetracker.auth;
 
+import de.coerdevelopment.timetracker.security.CurrentUser;
 import de.coerdevelopment.timetracker.security.JwtService;
+import de.coerdevelopment.timetracker.security.TokenVersionCache;
 import de.coerdevelopment.timetracker.user.User;
+import de.coerdevelopment.timetracker.user.UserCache;
 import de.coerdevelopment.timetracker.user.UserRepository;
+import de.coerdevelopment.timetracker.user.UserSnapshot;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -16,34 +22,79 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager;
     private final JwtService jwtService;
+    private final TokenVersionCache tokenVersions;
+    private final CurrentUser currentUser;
+    private final UserCache userCache;
+    private final RefreshTokenService refreshTokens;
+    private final MeterRegistry meterRegistry;
 
     public AuthService(UserRepository userRepository, PasswordEncoder passwordEncoder,
-                       AuthenticationManager authenticationManager, JwtService jwtService) {
+                       AuthenticationManager authenticationManager, JwtService jwtService,
+                       TokenVersionCache tokenVersions, CurrentUser currentUser, UserCache userCache,
+                       RefreshTokenService refreshTokens, MeterRegistry meterRegistry) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.authenticationManager = authenticationManager;
         this.jwtService = jwtService;
+        this.tokenVersions = tokenVersions;
+        this.currentUser = currentUser;
+        this.userCache = userCache;
+        this.refreshTokens = refreshTokens;
+        this.meterRegistry = meterRegistry;
     }
 
     @Transactional
-    public String register(String username, String password) {
+    public AuthResponse register(String username, String password) {
         if (userRepository.existsByUsername(username)) throw new IllegalArgumentException("Username bereits vergeben");
         User u = new User();
         u.setUsername(username);
         u.setPassword(passwordEncoder.encode(password));
         u.setRole("USER");
         userRepository.save(u);
-        UserDetails details = org.springframework.security.core.userdetails.User
-                .withUsername(u.getUsername()).password(u.getPassword()).roles(u.getRole()).build();
-        return jwtService.generateToken(details);
+        return tokens(UserSnapshot.of(u), refreshTokens.issue(u.getId()));
     }
 
-    public String login(String username, String password) {
-        authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(username, password));
-        User user = userRepository.findByUsername(username).orElseThrow();
-        UserDetails details = org.springframework.security.core.userdetails.User
-                .withUsername(user.getUsername()).password(user.getPassword()).roles(user.getRole()).build();
-        return jwtService.generateToken(details);
+    /**
+     * Recorded as auth.login by outcome; the BCrypt share of it is password.hash with operation=matches.
+     */
+    public AuthResponse login(String username, String password) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "failure";
+        try {
+            authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(username, password));
+            outcome = "success";
+        } finally {
+            sample.stop(Timer.builder("auth.login").tag("outcome", outcome).register(meterRegistry));
+        }
+        UserSnapshot user = userCache.findByUsername(username).orElseThrow();
+        return tokens(user, refreshTokens.issue(user.id()));
+    }
+
+    /**
+     * Exchanges a refresh token for a new access token and a new refresh token.
+     */
+    @Transactional(noRollbackFor = BadCredentialsException.class)
+    public AuthResponse refresh(String refreshToken) {
+        RefreshTokenService.Rotation rotation = refreshTokens.rotate(refreshToken);
+        UserSnapshot user = userRepository.findById(rotation.userId()).map(UserSnapshot::of)
+                .orElseThrow(() -> new BadCredentialsException("Invalid refresh token"));
+        return tokens(user, rotation.token());
+    }
+
+    private AuthResponse tokens(UserSnapshot user, String refreshToken) {
+        return new AuthResponse(jwtService.generateToken(user), refreshToken, jwtService.getExpirationSeconds());
     }
-}
 
+    /**
+     * Revokes all access and refresh tokens issued to the current user so far, including the one used for this request.
+     */
+    @Transactional
+    public void revokeTokens() {
+        Long userId = currentUser.id();
+        userRepository.incrementTokenVersion(userId);
+        refreshTokens.revokeAll(userId);
+        // Bulk-Update umgeht den Entity-Listener
+        userCache.invalidate(currentUser.username());
+        tokenVersions.invalidate(userId);
+    }
+}
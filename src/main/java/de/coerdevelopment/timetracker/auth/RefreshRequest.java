@@ -0,0 +1,7 @@
+package de.coerdevelopment.timetracker.auth;
+
+import jakarta.validation.constraints.NotBlank;
+
+public record RefreshRequest(
+        @NotBlank String refreshToken
+) {}
@@ -0,0 +1,103 @@
+package de.coerdevelopment.timetracker.auth;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Issues and rotates refresh tokens. Only refreshing touches the database; access tokens stay short-lived
+ * and are validated in memory.
+ */
+@Service
+public class RefreshTokenService {
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    /**
+     * @param userId owner of the refresh token that was exchanged
+     * @param token  new refresh token replacing it
+     */
+    public record Rotation(Long userId, String token) {}
+
+    private final RefreshTokenRepository repository;
+    private final long expirationSeconds;
+    private final SecureRandom random = new SecureRandom();
+
+    public RefreshTokenService(RefreshTokenRepository repository,
+                               @Value("${jwt.refreshExpirationSeconds:2592000}") long expirationSeconds) {
+        this.repository = repository;
+        this.expirationSeconds = expirationSeconds;
+    }
+
+    /**
+     * Starts a new token family, e.g. on login.
+     */
+    @Transactional
+    public String issue(Long userId) {
+        repository.deleteExpired(userId, Instant.now());
+        return create(userId, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Exchanges a refresh token for a new one of the same family. A token that was already exchanged or revoked
+     * revokes the whole family, since either the client or an attacker holds a copy of it.
+     *
+     * @throws BadCredentialsException if the token is unknown, expired, revoked or reused
+     */
+    @Transactional(noRollbackFor = BadCredentialsException.class)
+    public Rotation rotate(String rawToken) {
+        RefreshToken current = repository.findByTokenHash(hash(rawToken))
+                .orElseThrow(() -> new BadCredentialsException("Invalid refresh token"));
+        if (current.isRevoked() || current.getUsedAt() != null) {
+            int revoked = repository.revokeFamily(current.getFamilyId());
+            log.warn("Refresh token reuse for user {}, revoked token family {} ({} tokens)",
+                    current.getUserId(), current.getFamilyId(), revoked);
+            throw new BadCredentialsException("Invalid refresh token");
+        }
+        Instant now = Instant.now();
+        if (current.getExpiresAt().isBefore(now)) {
+            throw new BadCredentialsException("Refresh token expired");
+        }
+        current.setUsedAt(now);
+        return new Rotation(current.getUserId(), create(current.getUserId(), current.getFamilyId()));
+    }
+
+    @Transactional
+    public void revokeAll(Long userId) {
+        repository.revokeAllForUser(userId);
+    }
+
+    private String create(Long userId, String familyId) {
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        String raw = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        Instant now = Instant.now();
+        RefreshToken token = new RefreshToken();
+        token.setTokenHash(hash(raw));
+        token.setUserId(userId);
+        token.setFamilyId(familyId);
+        token.setCreatedAt(now);
+        token.setExpiresAt(now.plusSeconds(expirationSeconds));
+        repository.save(token);
+        return raw;
+    }
+
+    private static String hash(String raw) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(raw.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package de.coerdevelopment.timetracker.report;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Rollup of all time entries of one user for one day and subject. Maintained incrementally by
+ * {@link DailyTotalStore} whenever entries are created, changed, deleted or imported; reports only read this table.
+ */
+@Entity
+@IdClass(DailyTotal.Key.class)
+@Table(name = "report_daily_totals")
+public class DailyTotal {
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Id
+    @Column(name = "date_worked")
+    private LocalDate dateWorked;
+
+    @Id
+    @Column(length = 200)
+    private String subject;
+
+    @Column(nullable = false)
+    private long minutes;
+
+    @Column(nullable = false)
+    private int entryCount;
+
+    public DailyTotal() {}
+
+    public Long getUserId() { return userId; }
+    public LocalDate getDateWorked() { return dateWorked; }
+    public String getSubject() { return subject; }
+    public long getMinutes() { return minutes; }
+    public int getEntryCount() { return entryCount; }
+
+    public static class Key implements Serializable {
+        private Long userId;
+        private LocalDate dateWorked;
+        private String subject;
+
+        public Key() {}
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key k && Objects.equals(userId, k.userId)
+                    && Objects.equals(dateWorked, k.dateWorked) && Objects.equals(subject, k.subject);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, dateWorked, subject);
+        }
+    }
+}
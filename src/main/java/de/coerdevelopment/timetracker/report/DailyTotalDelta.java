@@ -0,0 +1,17 @@
+package de.coerdevelopment.timetracker.report;
+
+import java.time.LocalDate;
+
+/**
+ * Change to apply to one {@link DailyTotal}; negative values when entries are removed.
+ */
+public record DailyTotalDelta(Long userId, LocalDate dateWorked, String subject, long minutes, int entries) {
+
+    public static DailyTotalDelta added(Long userId, LocalDate dateWorked, String subject, int minutes) {
+        return new DailyTotalDelta(userId, dateWorked, subject, minutes, 1);
+    }
+
+    public static DailyTotalDelta removed(Long userId, LocalDate dateWorked, String subject, int minutes) {
+        return new DailyTotalDelta(userId, dateWorked, subject, -minutes, -1);
+    }
+}
@@ -0,0 +1,123 @@
+package de.coerdevelopment.timetracker.report;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Applies {@link DailyTotalDelta}s to the rollup table. Callers run inside the transaction that changes the
+ * time entries, so entries and totals are committed together.
+ */
+@Component
+public class DailyTotalStore {
+    // PostgreSQL: ON CONFLICT ist auch bei parallelen Inserts desselben Schlüssels atomar
+    private static final String UPSERT_POSTGRES = "insert into report_daily_totals " +
+            "(user_id, date_worked, subject, minutes, entry_count) values (?, ?, ?, ?, ?) " +
+            "on conflict (user_id, date_worked, subject) do update set " +
+            "minutes = report_daily_totals.minutes + excluded.minutes, " +
+            "entry_count = report_daily_totals.entry_count + excluded.entry_count";
+    // Standard-SQL für andere Datenbanken (H2 in Tests)
+    private static final String UPSERT_MERGE = "merge into report_daily_totals t " +
+            "using (values (cast(? as bigint), cast(? as date), cast(? as varchar(200)), cast(? as bigint), cast(? as integer))) " +
+            "as s(user_id, date_worked, subject, minutes, entry_count) " +
+            "on t.user_id = s.user_id and t.date_worked = s.date_worked and t.subject = s.subject " +
+            "when matched then update set minutes = t.minutes + s.minutes, entry_count = t.entry_count + s.entry_count " +
+            "when not matched then insert (user_id, date_worked, subject, minutes, entry_count) " +
+            "values (s.user_id, s.date_worked, s.subject, s.minutes, s.entry_count)";
+    private static final String DELETE_EMPTY = "delete from report_daily_totals " +
+            "where user_id = ? and date_worked = ? and subject = ? and entry_count <= 0";
+    private static final String REBUILD = "insert into report_daily_totals " +
+            "(user_id, date_worked, subject, minutes, entry_count) " +
+            "select user_id, date_worked, subject, sum(minutes_worked), count(*) from time_entries " +
+            "group by user_id, date_worked, subject";
+    // sperrt sich selbst und die Upserts (ROW EXCLUSIVE), Lesen bleibt möglich
+    private static final String LOCK_POSTGRES = "lock table report_daily_totals in share row exclusive mode";
+
+    private record Key(Long userId, LocalDate dateWorked, String subject) {}
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile Boolean postgres;
+
+    public DailyTotalStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void apply(DailyTotalDelta delta) {
+        applyAll(List.of(delta));
+    }
+
+    /**
+     * Applies the deltas with one batch; deltas for the same key are merged first.
+     */
+    public void applyAll(Collection<DailyTotalDelta> deltas) {
+        Map<Key, DailyTotalDelta> merged = new LinkedHashMap<>();
+        for (DailyTotalDelta d : deltas) {
+            merged.merge(keyOf(d), d, (a, b) -> new DailyTotalDelta(a.userId(), a.dateWorked(), a.subject(),
+                    a.minutes() + b.minutes(), a.entries() + b.entries()));
+        }
+        List<DailyTotalDelta> effective = merged.values().stream()
+                .filter(d -> d.minutes() != 0 || d.entries() != 0)
+                .toList();
+        if (effective.isEmpty()) return;
+        jdbcTemplate.batchUpdate(upsertSql(), effective, effective.size(), (ps, d) -> {
+            bindKey(ps, d);
+            ps.setLong(4, d.minutes());
+            ps.setInt(5, d.entries());
+        });
+        List<DailyTotalDelta> shrinking = effective.stream().filter(d -> d.entries() < 0).toList();
+        if (!shrinking.isEmpty()) {
+            jdbcTemplate.batchUpdate(DELETE_EMPTY, shrinking, shrinking.size(), DailyTotalStore::bindKey);
+        }
+    }
+
+    /**
+     * Locks the rollup table until the end of the current transaction, so that only one node at a time checks
+     * and rebuilds it and writers wait for the rebuild. Only PostgreSQL takes a lock; the embedded databases
+     * used for tests and single-node setups have one process per database.
+     */
+    public void lockForRebuild() {
+        if (isPostgres()) {
+            jdbcTemplate.execute(LOCK_POSTGRES);
+        }
+    }
+
+    public boolean isEmpty() {
+        return !Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "select exists (select 1 from report_daily_totals)", Boolean.class));
+    }
+
+    /**
+     * Recomputes all totals from time_entries. Must run in a transaction.
+     */
+    public int rebuild() {
+        jdbcTemplate.update("delete from report_daily_totals");
+        return jdbcTemplate.update(REBUILD);
+    }
+
+    private String upsertSql() {
+        return isPostgres() ? UPSERT_POSTGRES : UPSERT_MERGE;
+    }
+
+    private boolean isPostgres() {
+        if (postgres == null) {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+            postgres = "PostgreSQL".equalsIgnoreCase(product);
+        }
+        return postgres;
+    }
+
+    private static void bindKey(PreparedStatement ps, DailyTotalDelta d) throws SQLException {
+        ps.setLong(1, d.userId());
+        ps.setObject(2, d.dateWorked());
+        ps.setString(3, d.subject());
+    }
+
+    private static Key keyOf(DailyTotalDelta d) {
+        return new Key(d.userId(), d.dateWorked(), d.subject());
+    }
+}
@@ -0,0 +1,16 @@
+package de.coerdevelopment.timetracker.report;
+
+import java.time.LocalDate;
+
+/**
+ * @param period label of the period: yyyy-MM-dd (day), YYYY-'W'ww (ISO week) or yyyy-MM (month)
+ * @param start  first day of the period
+ * @param end    last day of the period
+ */
+public record PeriodTotal(
+        String period,
+        LocalDate start,
+        LocalDate end,
+        long minutes,
+        long entries
+) {}
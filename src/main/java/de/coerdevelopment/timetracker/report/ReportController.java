@@ -0,0 +1,58 @@
+package de.coerdevelopment.timetracker.report;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/reports")
+@Tag(name = "Reports")
+@SecurityRequirement(name = "bearerAuth")
+public class ReportController {
+    private final ReportService service;
+
+    public ReportController(ReportService service) {
+        this.service = service;
+    }
+
+    @GetMapping("/daily")
+    @Operation(summary = "Minutes per day")
+    public ResponseEntity<List<PeriodTotal>> daily(
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(service.daily(from, to));
+    }
+
+    @GetMapping("/weekly")
+    @Operation(summary = "Minutes per ISO week")
+    public ResponseEntity<List<PeriodTotal>> weekly(
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(service.weekly(from, to));
+    }
+
+    @GetMapping("/monthly")
+    @Operation(summary = "Minutes per month")
+    public ResponseEntity<List<PeriodTotal>> monthly(
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(service.monthly(from, to));
+    }
+
+    @GetMapping("/subjects")
+    @Operation(summary = "Minutes per subject")
+    public ResponseEntity<List<SubjectTotal>> subjects(
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(service.bySubject(from, to));
+    }
+}
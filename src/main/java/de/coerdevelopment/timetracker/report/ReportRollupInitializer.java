@@ -0,0 +1,41 @@
+package de.coerdevelopment.timetracker.report;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Fills the rollup table from existing time entries when it is empty, e.g. after upgrading an existing database.
+ * Runs before the startup CSV import, which only adds its own rows to the totals. Check and rebuild run under
+ * a table lock, so nodes starting at the same time rebuild at most once.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ReportRollupInitializer implements CommandLineRunner {
+    private static final Logger log = LoggerFactory.getLogger(ReportRollupInitializer.class);
+
+    private final DailyTotalStore store;
+    private final TransactionTemplate txTemplate;
+
+    public ReportRollupInitializer(DailyTotalStore store, PlatformTransactionManager txManager) {
+        this.store = store;
+        this.txTemplate = new TransactionTemplate(txManager);
+    }
+
+    @Override
+    public void run(String... args) {
+        Integer rows = txTemplate.execute(status -> {
+            // weitere Knoten warten hier und finden danach eine gefüllte Tabelle vor
+            store.lockForRebuild();
+            return store.isEmpty() ? store.rebuild() : null;
+        });
+        if (rows != null && rows > 0) {
+            log.info("Report rollups rebuilt from time entries: {} daily totals", rows);
+        }
+    }
+}
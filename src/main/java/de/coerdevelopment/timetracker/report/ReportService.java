@@ -0,0 +1,110 @@
+package de.coerdevelopment.timetracker.report;
+
+import de.coerdevelopment.timetracker.security.CurrentUser;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.IsoFields;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Reports over the rollup table. Work depends on the number of days and subjects in the range,
+ * not on the number of raw time entries.
+ */
+@Service
+public class ReportService {
+    // Maximaler Zeitraum eines Reports, begrenzt die Anzahl gelesener Tages-Zeilen
+    static final int MAX_RANGE_DAYS = 3660;
+
+    private static final DateTimeFormatter MONTH = DateTimeFormatter.ofPattern("yyyy-MM", Locale.ROOT);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CurrentUser currentUser;
+
+    public ReportService(JdbcTemplate jdbcTemplate, CurrentUser currentUser) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.currentUser = currentUser;
+    }
+
+    @Transactional(readOnly = true)
+    public List<PeriodTotal> daily(LocalDate from, LocalDate to) {
+        return dailyTotals(from, to).stream()
+                .map(d -> new PeriodTotal(d.period(), d.start(), d.end(), d.minutes(), d.entries()))
+                .toList();
+    }
+
+    @Transactional(readOnly = true)
+    public List<PeriodTotal> weekly(LocalDate from, LocalDate to) {
+        return fold(dailyTotals(from, to), Granularity.WEEK);
+    }
+
+    @Transactional(readOnly = true)
+    public List<PeriodTotal> monthly(LocalDate from, LocalDate to) {
+        return fold(dailyTotals(from, to), Granularity.MONTH);
+    }
+
+    @Transactional(readOnly = true)
+    public List<SubjectTotal> bySubject(LocalDate from, LocalDate to) {
+        validateRange(from, to);
+        return jdbcTemplate.query("select subject, sum(minutes), sum(entry_count) from report_daily_totals " +
+                        "where user_id = ? and date_worked between ? and ? group by subject order by 2 desc, subject",
+                (rs, i) -> new SubjectTotal(rs.getString(1), rs.getLong(2), rs.getLong(3)),
+                currentUser.id(), from, to);
+    }
+
+    private List<PeriodTotal> dailyTotals(LocalDate from, LocalDate to) {
+        validateRange(from, to);
+        return jdbcTemplate.query("select date_worked, sum(minutes), sum(entry_count) from report_daily_totals " +
+                        "where user_id = ? and date_worked between ? and ? group by date_worked order by date_worked",
+                (rs, i) -> {
+                    LocalDate day = rs.getObject(1, LocalDate.class);
+                    return new PeriodTotal(day.toString(), day, day, rs.getLong(2), rs.getLong(3));
+                },
+                currentUser.id(), from, to);
+    }
+
+    private enum Granularity { WEEK, MONTH }
+
+    // Fasst aufsteigend sortierte Tageswerte zu Wochen bzw. Monaten zusammen
+    private static List<PeriodTotal> fold(List<PeriodTotal> days, Granularity granularity) {
+        List<PeriodTotal> result = new ArrayList<>();
+        PeriodTotal current = null;
+        for (PeriodTotal day : days) {
+            LocalDate start = granularity == Granularity.WEEK
+                    ? day.start().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY))
+                    : day.start().withDayOfMonth(1);
+            if (current != null && current.start().equals(start)) {
+                current = new PeriodTotal(current.period(), start, current.end(),
+                        current.minutes() + day.minutes(), current.entries() + day.entries());
+                result.set(result.size() - 1, current);
+                continue;
+            }
+            current = granularity == Granularity.WEEK
+                    ? new PeriodTotal(isoWeek(start), start, start.plusDays(6), day.minutes(), day.entries())
+                    : new PeriodTotal(MONTH.format(start), start, start.with(TemporalAdjusters.lastDayOfMonth()), day.minutes(), day.entries());
+            result.add(current);
+        }
+        return result;
+    }
+
+    private static String isoWeek(LocalDate monday) {
+        return String.format(Locale.ROOT, "%d-W%02d",
+                monday.get(IsoFields.WEEK_BASED_YEAR), monday.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+    }
+
+    private static void validateRange(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        if (from.plusDays(MAX_RANGE_DAYS).isBefore(to)) {
+            throw new IllegalArgumentException("Range must not exceed " + MAX_RANGE_DAYS + " days");
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package de.coerdevelopment.timetracker.report;
+
+public record SubjectTotal(
+        String subject,
+        long minutes,
+        long entries
+) {}
@@ -0,0 +1,14 @@
+package de.coerdevelopment.timetracker.security;
+
+import org.springframework.security.core.AuthenticatedPrincipal;
+
+/**
+ * Principal of a request authenticated by JWT. Built from the token's claims, so no user query is needed;
+ * {@code Authentication.getName()} still returns the username.
+ */
+public record AuthenticatedUser(Long id, String username, String role) implements AuthenticatedPrincipal {
+    @Override
+    public String getName() {
+        return username;
+    }
+}
@@ -0,0 +1,42 @@
+package de.coerdevelopment.timetracker.security;
+
+import de.coerdevelopment.timetracker.user.User;
+import de.coerdevelopment.timetracker.user.UserCache;
+import de.coerdevelopment.timetracker.user.UserRepository;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Access to the authenticated user of the current request.
+ */
+@Component
+public class CurrentUser {
+    private final UserRepository userRepository;
+    private final UserCache userCache;
+
+    public CurrentUser(UserRepository userRepository, UserCache userCache) {
+        this.userRepository = userRepository;
+        this.userCache = userCache;
+    }
+
+    public Long id() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth.getPrincipal() instanceof AuthenticatedUser user) {
+            return user.id();
+        }
+        // z. B. HTTP Basic: Principal kennt nur den Namen
+        return userCache.findByUsername(auth.getName()).orElseThrow().id();
+    }
+
+    public String username() {
+        return SecurityContextHolder.getContext().getAuthentication().getName();
+    }
+
+    /**
+     * Lazy reference to the user without a query, for associations and id-based lookups.
+     */
+    public User reference() {
+        return userRepository.getReferenceById(id());
+    }
+}
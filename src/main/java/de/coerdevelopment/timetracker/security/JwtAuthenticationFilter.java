@@ -1,5 +1,11 @@
 package de.coerdevelopment.timetracker.security;
 
+import de.coerdevelopment.timetracker.user.UserCache;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -7,23 +13,39 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.http.HttpHeaders;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private final JwtService jwtService;
-    private final UserDetailsService userDetailsService;
+    private final TokenVersionCache tokenVersions;
+    private final UserCache userCache;
+    private final Timer parseTimer;
+    private final Counter expiredTokens;
+    private final Counter invalidTokens;
+    private final Counter revokedTokens;
 
-    public JwtAuthenticationFilter(JwtService jwtService, UserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtService jwtService, TokenVersionCache tokenVersions, UserCache userCache,
+                                   MeterRegistry meterRegistry) {
         this.jwtService = jwtService;
-        this.userDetailsService = userDetailsService;
+        this.tokenVersions = tokenVersions;
+        this.userCache = userCache;
+        this.parseTimer = Timer.builder("jwt.parse").register(meterRegistry);
+        this.expiredTokens = failures(meterRegistry, "expired");
+        this.invalidTokens = failures(meterRegistry, "invalid");
+        this.revokedTokens = failures(meterRegistry, "revoked");
+    }
+
+    private static Counter failures(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("jwt.authentication.failures").tag("reason", reason).register(meterRegistry);
     }
 
     @Override
@@ -36,23 +58,50 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
         String token = authHeader.substring(7);
-        String username = null;
+        Claims claims;
+        long parseStart = System.nanoTime();
         try {
-            username = jwtService.extractUsername(token);
+            claims = jwtService.extractAllClaims(token);
+        } catch (ExpiredJwtException e) {
+            expiredTokens.increment();
+            filterChain.doFilter(request, response);
+            return;
         } catch (Exception e) {
+            invalidTokens.increment();
             filterChain.doFilter(request, response);
             return;
+        } finally {
+            parseTimer.record(System.nanoTime() - parseStart, TimeUnit.NANOSECONDS);
         }
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-            if (jwtService.isTokenValid(token, userDetails)) {
+        if (claims.getSubject() == null) {
+            invalidTokens.increment();
+        } else if (jwtService.isTokenExpired(claims)) {
+            expiredTokens.increment();
+        } else if (SecurityContextHolder.getContext().getAuthentication() == null) {
+            Optional<AuthenticatedUser> user = jwtService.toPrincipal(claims)
+                    .filter(u -> tokenVersions.isCurrent(u.id(), jwtService.tokenVersion(claims)))
+                    .or(() -> legacyPrincipal(claims));
+            if (user.isEmpty()) {
+                revokedTokens.increment();
+            }
+            user.ifPresent(u -> {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
+                        u, null, AuthorityUtils.createAuthorityList("ROLE_" + u.role()));
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authToken);
-            }
+            });
         }
         filterChain.doFilter(request, response);
     }
+
+    // Ältere Tokens enthalten nur den Usernamen: User laden; nach einem Widerruf (Version > 0) nicht mehr gültig
+    private Optional<AuthenticatedUser> legacyPrincipal(Claims claims) {
+        if (jwtService.toPrincipal(claims).isPresent()) {
+            return Optional.empty();
+        }
+        return userCache.findByUsername(claims.getSubject())
+                .filter(u -> u.tokenVersion() == 0)
+                .map(u -> new AuthenticatedUser(u.id(), u.username(), u.role()));
+    }
 }
 
@@ -1,28 +1,78 @@
 package de.coerdevelopment.timetracker.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import de.coerdevelopment.timetracker.user.UserSnapshot;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.Base64;
 import java.util.Date;
+import java.util.Optional;
 import java.util.function.Function;
 
 @Service
 public class JwtService {
-    private final String secret;
+    static final String CLAIM_USER_ID = "uid";
+    static final String CLAIM_ROLE = "role";
+    static final String CLAIM_VERSION = "ver";
+
     private final long expirationSeconds;
+    private final SecretKey signKey;
+    private final JwtParser parser;
+    // Bereits verifizierte Claims, Schlüssel = SHA-256 des Tokens; Einträge verfallen spätestens mit dem Token
+    private final Cache<String, Claims> claimsCache;
 
     public JwtService(@Value("${jwt.secret}") String secret,
-                      @Value("${jwt.expirationSeconds}") long expirationSeconds) {
-        this.secret = secret;
+                      @Value("${jwt.expirationSeconds}") long expirationSeconds,
+                      @Value("${jwt.cache.maxSize:10000}") long cacheMaxSize,
+                      @Value("${jwt.cache.ttlSeconds:600}") long cacheTtlSeconds,
+                      MeterRegistry meterRegistry) {
         this.expirationSeconds = expirationSeconds;
+        this.signKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parserBuilder().setSigningKey(signKey).build();
+        long maxTtlNanos = Duration.ofSeconds(cacheTtlSeconds).toNanos();
+        this.claimsCache = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String key, Claims claims, long currentTime) {
+                        if (claims.getExpiration() == null) return maxTtlNanos;
+                        long untilExpiry = Duration.between(Instant.now(), claims.getExpiration().toInstant()).toNanos();
+                        return Math.max(0, Math.min(untilExpiry, maxTtlNanos));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, claimsCache, "jwtClaims");
+    }
+
+    public long getExpirationSeconds() {
+        return expirationSeconds;
     }
 
     public String extractUsername(String token) {
@@ -34,36 +84,59 @@ public class JwtService {
         return claimsResolver.apply(claims);
     }
 
-    public String generateToken(UserDetails userDetails) {
+    /**
+     * Issues a token that carries user id, role and token version, so requests can be authenticated without a user query.
+     */
+    public String generateToken(UserSnapshot user) {
         Instant now = Instant.now();
         Instant exp = now.plusSeconds(expirationSeconds);
         return Jwts.builder()
-                .setSubject(userDetails.getUsername())
+                .setSubject(user.username())
+                .claim(CLAIM_USER_ID, user.id())
+                .claim(CLAIM_ROLE, user.role())
+                .claim(CLAIM_VERSION, user.tokenVersion())
                 .setIssuedAt(Date.from(now))
                 .setExpiration(Date.from(exp))
-                .signWith(getSignKey(), SignatureAlgorithm.HS256)
+                .signWith(signKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    public boolean isTokenValid(String token, UserDetails userDetails) {
-        String username = extractUsername(token);
-        return username.equals(userDetails.getUsername()) && !isTokenExpired(token);
+    /**
+     * Principal from the claims of a token issued by {@link #generateToken(UserSnapshot)}; empty for older tokens that
+     * only carry the username.
+     */
+    public Optional<AuthenticatedUser> toPrincipal(Claims claims) {
+        Long userId = claims.get(CLAIM_USER_ID, Long.class);
+        String role = claims.get(CLAIM_ROLE, String.class);
+        if (userId == null || role == null || claims.get(CLAIM_VERSION) == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new AuthenticatedUser(userId, claims.getSubject(), role));
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    public int tokenVersion(Claims claims) {
+        return claims.get(CLAIM_VERSION, Integer.class);
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    public boolean isTokenExpired(Claims claims) {
+        return claims.getExpiration() == null || claims.getExpiration().before(new Date());
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder().setSigningKey(getSignKey()).build().parseClaimsJws(token).getBody();
+    /**
+     * Verified claims of the token. The token is parsed and its signature checked at most once while it is
+     * cached; invalid tokens are never cached and throw a JwtException on every call.
+     * The returned claims are shared and must not be modified.
+     */
+    public Claims extractAllClaims(String token) {
+        return claimsCache.get(hash(token), key -> parser.parseClaimsJws(token).getBody());
     }
 
-    private SecretKey getSignKey() {
-        byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
 }
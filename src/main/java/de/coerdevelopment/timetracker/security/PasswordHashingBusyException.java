@@ -0,0 +1,10 @@
+package de.coerdevelopment.timetracker.security;
+
+/**
+ * Thrown when the password hashing queue is full; mapped to 429 Too Many Requests.
+ */
+public class PasswordHashingBusyException extends RuntimeException {
+    public PasswordHashingBusyException() {
+        super("Too many concurrent logins, retry later");
+    }
+}
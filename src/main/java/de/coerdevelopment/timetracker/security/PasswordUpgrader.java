@@ -0,0 +1,26 @@
+package de.coerdevelopment.timetracker.security;
+
+import de.coerdevelopment.timetracker.user.UserRepository;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Stores the re-hashed password after a login with an outdated hash strength.
+ */
+@Component
+public class PasswordUpgrader implements UserDetailsPasswordService {
+    private final UserRepository userRepository;
+
+    public PasswordUpgrader(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        userRepository.findByUsername(user.getUsername()).ifPresent(u -> u.upgradePasswordHash(newPassword));
+        return org.springframework.security.core.userdetails.User.withUserDetails(user).password(newPassword).build();
+    }
+}
@@ -1,6 +1,7 @@
 package de.coerdevelopment.timetracker.security;
 
-import de.coerdevelopment.timetracker.user.UserRepository;
+import de.coerdevelopment.timetracker.user.UserCache;
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -14,7 +15,6 @@ import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -22,31 +22,33 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 @Configuration
 @EnableMethodSecurity
 public class SecurityConfig {
-    private final UserRepository userRepository;
+    private final UserCache userCache;
 
-    public SecurityConfig(UserRepository userRepository) {
-        this.userRepository = userRepository;
+    public SecurityConfig(UserCache userCache) {
+        this.userCache = userCache;
     }
 
     @Bean
     public UserDetailsService userDetailsService() {
         return username -> {
-            var u = userRepository.findByUsername(username)
+            var u = userCache.findByUsername(username)
                     .orElseThrow(() -> new UsernameNotFoundException("User not found"));
             UserDetails user = org.springframework.security.core.userdetails.User
-                    .withUsername(u.getUsername())
-                    .password(u.getPassword())
-                    .roles(u.getRole())
+                    .withUsername(u.username())
+                    .password(u.password())
+                    .roles(u.role())
                     .build();
             return user;
         };
     }
 
     @Bean
-    public AuthenticationProvider authenticationProvider() {
+    public AuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder, PasswordUpgrader passwordUpgrader) {
         DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
         provider.setUserDetailsService(userDetailsService());
-        provider.setPasswordEncoder(passwordEncoder());
+        provider.setPasswordEncoder(passwordEncoder);
+        // speichert den Hash neu, wenn bcryptStrength erhöht wurde
+        provider.setUserDetailsPasswordService(passwordUpgrader);
         return provider;
     }
 
@@ -55,18 +57,18 @@ public class SecurityConfig {
         return config.getAuthenticationManager();
     }
 
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
-    }
-
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http, JwtAuthenticationFilter jwtAuthFilter) throws Exception {
         http.csrf(csrf -> csrf.disable());
         http.sessionManagement(sm -> sm.sessionCreationPolicy(SessionCreationPolicy.STATELESS));
         http.authorizeHttpRequests(auth -> auth
+                // Streaming-Exports: der Async-Dispatch nach dem Schreiben gehört zum bereits geprüften Request,
+                // der JWT-Filter läuft dort nicht erneut
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                .requestMatchers("/api/auth/revoke").authenticated()
                 .requestMatchers("/api/auth/**").permitAll()
                 .requestMatchers("/swagger-ui/**", "/v3/api-docs/**", "/api-docs/**").permitAll()
+                .requestMatchers("/actuator/health", "/actuator/prometheus").permitAll()
                 .anyRequest().authenticated());
         http.headers(h -> h.frameOptions(f -> f.disable()));
         http.addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
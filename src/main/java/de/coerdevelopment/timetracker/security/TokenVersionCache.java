@@ -0,0 +1,69 @@
+package de.coerdevelopment.timetracker.security;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import de.coerdevelopment.timetracker.user.UserRepository;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Current token version per user id. Tokens carry the version they were issued with; a higher version in the
+ * database revokes them. Other nodes notice a revocation after at most {@code jwt.versionCacheSeconds}.
+ */
+@Component
+public class TokenVersionCache {
+    private final UserRepository userRepository;
+    private final ExecutorService loader = Executors.newVirtualThreadPerTaskExecutor();
+    private final AsyncLoadingCache<Long, Optional<Integer>> versions;
+
+    public TokenVersionCache(UserRepository userRepository,
+                             @Value("${jwt.versionCacheSeconds:30}") long ttlSeconds,
+                             MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                // Query in einem virtuellen Thread außerhalb des Map-Locks, siehe UserCache
+                .executor(loader)
+                .buildAsync(userRepository::findTokenVersionById);
+        CaffeineCacheMetrics.monitor(meterRegistry, versions, "tokenVersions");
+    }
+
+    /**
+     * @return false if the user no longer exists or the version has been increased since the token was issued
+     */
+    public boolean isCurrent(Long userId, int tokenVersion) {
+        return versions.get(userId).join().map(v -> v == tokenVersion).orElse(false);
+    }
+
+    /**
+     * Drops the cached version now and, inside a transaction, once more after commit, like {@code UserCache}.
+     */
+    public void invalidate(Long userId) {
+        versions.synchronous().invalidate(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    versions.synchronous().invalidate(userId);
+                }
+            });
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        loader.shutdownNow();
+    }
+}
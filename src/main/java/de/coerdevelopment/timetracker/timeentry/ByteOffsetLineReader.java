@@ -0,0 +1,107 @@
+package de.coerdevelopment.timetracker.timeentry;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Line reader for UTF-8 input that knows the exact byte offset behind the last returned line,
+ * so an import can record where a CSV record ends and later continue from there.
+ * CSVReader only calls {@link #readLine()}; the char-based read methods are not supported.
+ */
+final class ByteOffsetLineReader extends BufferedReader {
+    private final InputStream in;
+    private final byte[] buffer = new byte[64 * 1024];
+    private int pos;
+    private int limit;
+    private byte[] line = new byte[256];
+    private int lineLength;
+    private long offset;
+
+    ByteOffsetLineReader(InputStream in) {
+        super(Reader.nullReader(), 1);
+        this.in = in;
+    }
+
+    /**
+     * Byte offset directly behind the line terminator of the last line returned by {@link #readLine()}.
+     */
+    long offset() {
+        return offset;
+    }
+
+    /**
+     * Skips forward to the given byte offset, which must be at a line boundary.
+     */
+    void skipTo(long target) throws IOException {
+        if (target <= offset) return;
+        long remaining = target - offset;
+        int buffered = limit - pos;
+        if (remaining <= buffered) {
+            pos += (int) remaining;
+        } else {
+            pos = limit;
+            in.skipNBytes(remaining - buffered);
+        }
+        offset = target;
+    }
+
+    @Override
+    public String readLine() throws IOException {
+        lineLength = 0;
+        boolean read = false;
+        while (true) {
+            if (pos == limit && !fill()) {
+                return read ? decodeLine() : null;
+            }
+            byte b = buffer[pos++];
+            offset++;
+            read = true;
+            if (b == '\n') {
+                return decodeLine();
+            }
+            if (b == '\r') {
+                // \r\n oder einzelnes \r
+                if ((pos < limit || fill()) && buffer[pos] == '\n') {
+                    pos++;
+                    offset++;
+                }
+                return decodeLine();
+            }
+            if (lineLength == line.length) {
+                line = Arrays.copyOf(line, line.length * 2);
+            }
+            line[lineLength++] = b;
+        }
+    }
+
+    @Override
+    public int read() {
+        throw new UnsupportedOperationException("Only readLine() is supported");
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) {
+        throw new UnsupportedOperationException("Only readLine() is supported");
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private boolean fill() throws IOException {
+        int n = in.read(buffer, 0, buffer.length);
+        if (n <= 0) return false;
+        pos = 0;
+        limit = n;
+        return true;
+    }
+
+    private String decodeLine() {
+        return new String(line, 0, lineLength, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,72 @@
+package de.coerdevelopment.timetracker.timeentry;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Column layout of an import file, resolved once from the header.
+ * Every field keeps the indices of its alias columns in priority order, so a row (String[])
+ * can be read without building a map per row.
+ */
+final class CsvColumnPlan {
+    private static final List<String> USERNAME = List.of("username", "user", "email");
+    private static final List<String> SUBJECT = List.of("subject", "title", "betreff", "task");
+    private static final List<String> DESCRIPTION = List.of("description", "desc", "beschreibung", "notes", "note");
+    private static final List<String> DATE_WORKED = List.of("dateworked", "date", "workdate", "datum", "day");
+    private static final List<String> MINUTES_WORKED = List.of("minutesworked", "minutes", "duration", "dauer", "mins", "zeitmin");
+    private static final List<String> CREATED_AT = List.of("createdat", "created", "erstelltam");
+    private static final List<String> UPDATED_AT = List.of("updatedat", "lastupdated", "modified", "geaendertam");
+
+    private final int[] username;
+    private final int[] subject;
+    private final int[] description;
+    private final int[] dateWorked;
+    private final int[] minutesWorked;
+    private final int[] createdAt;
+    private final int[] updatedAt;
+
+    private CsvColumnPlan(Map<String, Integer> columns) {
+        this.username = indices(columns, USERNAME);
+        this.subject = indices(columns, SUBJECT);
+        this.description = indices(columns, DESCRIPTION);
+        this.dateWorked = indices(columns, DATE_WORKED);
+        this.minutesWorked = indices(columns, MINUTES_WORKED);
+        this.createdAt = indices(columns, CREATED_AT);
+        this.updatedAt = indices(columns, UPDATED_AT);
+    }
+
+    static CsvColumnPlan fromHeader(String[] header) {
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.length; i++) {
+            if (header[i] == null) continue;
+            columns.put(normalizeKey(header[i]), i);
+        }
+        return new CsvColumnPlan(columns);
+    }
+
+    static String normalizeKey(String key) {
+        return key.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]", "");
+    }
+
+    String username(String[] row) { return firstNonBlank(row, username); }
+    String subject(String[] row) { return firstNonBlank(row, subject); }
+    String description(String[] row) { return firstNonBlank(row, description); }
+    String dateWorked(String[] row) { return firstNonBlank(row, dateWorked); }
+    String minutesWorked(String[] row) { return firstNonBlank(row, minutesWorked); }
+    String createdAt(String[] row) { return firstNonBlank(row, createdAt); }
+    String updatedAt(String[] row) { return firstNonBlank(row, updatedAt); }
+
+    private static int[] indices(Map<String, Integer> columns, List<String> aliases) {
+        return aliases.stream().map(columns::get).filter(i -> i != null).mapToInt(Integer::intValue).toArray();
+    }
+
+    // Zeilen mit weniger Spalten als der Header gelten in den fehlenden Spalten als leer
+    private static String firstNonBlank(String[] row, int[] columns) {
+        for (int i : columns) {
+            if (i < row.length && row[i] != null && !row[i].isBlank()) return row[i].trim();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,263 @@
+package de.coerdevelopment.timetracker.timeentry;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.time.Year;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Parsers for the value formats of the CSV import, with the same results as the former java.time based parsing.
+ * The common shapes (yyyy-MM-dd, dd.MM.yyyy, MM/dd/yyyy, ISO date-times with four-digit years, plain integers)
+ * are detected from the separator positions and parsed by hand without exceptions. Anything else, e.g. signed
+ * years, leap seconds or non-ASCII digits, goes through the java.time formatters as before.
+ * All methods return null for null, blank or unparseable values.
+ */
+final class CsvFieldParser {
+    private static final List<DateTimeFormatter> DATE_FORMATS = List.of(
+            DateTimeFormatter.ISO_LOCAL_DATE,
+            DateTimeFormatter.ofPattern("dd.MM.yyyy"),
+            DateTimeFormatter.ofPattern("MM/dd/yyyy"));
+    private static final int MAX_OFFSET_SECONDS = 18 * 3600;
+
+    private CsvFieldParser() {}
+
+    /**
+     * Parses yyyy-MM-dd, dd.MM.yyyy or MM/dd/yyyy. ISO dates must exist; in the other two formats a day past
+     * the end of the month resolves to its last day (31.04.2024 is 2024-04-30), as with the SMART resolver.
+     */
+    static LocalDate parseDate(String s) {
+        if (s == null) return null;
+        s = s.trim();
+        if (s.isEmpty()) return null;
+        if (s.length() == 10 && isAsciiDate(s)) {
+            return parseDateAt(s);
+        }
+        return parseDateWithFormatters(s);
+    }
+
+    /**
+     * Parses an ISO instant or date-time (yyyy-MM-ddTHH:mm[:ss[.fraction]]) with optional Z or +-HH[:MM[:SS]]
+     * offset. Values without offset are interpreted in the given zone; dates map to the start of the day.
+     */
+    static Instant parseInstant(String s, ZoneId zone) {
+        if (s == null) return null;
+        s = s.trim();
+        if (s.isEmpty()) return null;
+        int len = s.length();
+        if (len >= 16 && isAsciiDate(s) && s.charAt(4) == '-' && (s.charAt(10) == 'T' || s.charAt(10) == 't')
+                && s.charAt(13) == ':') {
+            Instant fast = parseDateTime(s, zone);
+            if (fast != null || !needsFormatters(s)) return fast;
+        } else if (len == 10 && isAsciiDate(s)) {
+            LocalDate d = parseDateAt(s);
+            return d == null ? null : d.atStartOfDay(zone).toInstant();
+        }
+        return parseInstantWithFormatters(s, zone);
+    }
+
+    /**
+     * Parses a decimal integer with optional sign, like {@link Integer#parseInt(String)}; null if invalid or
+     * out of int range.
+     */
+    static Integer parseInt(String s) {
+        if (s == null) return null;
+        s = s.trim();
+        if (s.isEmpty()) return null;
+        int pos = 0;
+        boolean negative = false;
+        char first = s.charAt(0);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            pos++;
+        }
+        if (pos == s.length()) return null;
+        long limit = negative ? -(long) Integer.MIN_VALUE : Integer.MAX_VALUE;
+        long value = 0;
+        for (; pos < s.length(); pos++) {
+            char c = s.charAt(pos);
+            if (!isDigit(c)) {
+                // Integer.parseInt akzeptiert auch andere Unicode-Ziffern
+                return Character.isDigit(c) ? parseIntSlow(s) : null;
+            }
+            value = value * 10 + (c - '0');
+            if (value > limit) return null;
+        }
+        return (int) (negative ? -value : value);
+    }
+
+    // Zeit-Teil ab Position 11; null auch dann, wenn needsFormatters den Wert an java.time weiterreichen muss
+    private static Instant parseDateTime(String s, ZoneId zone) {
+        int len = s.length();
+        LocalDate date = parseDateAt(s);
+        int hour = digits(s, 11, 13);
+        int minute = digits(s, 14, 16);
+        if (date == null || hour < 0 || hour > 23 || minute < 0 || minute > 59) return null;
+
+        int pos = 16;
+        int second = 0;
+        int nanos = 0;
+        if (pos < len && s.charAt(pos) == ':') {
+            second = pos + 3 <= len ? digits(s, pos + 1, pos + 3) : -1;
+            if (second < 0 || second > 59) return null;
+            pos += 3;
+            if (pos < len && s.charAt(pos) == '.') {
+                int start = ++pos;
+                while (pos < len && isDigit(s.charAt(pos))) {
+                    if (pos - start == 9) return null;
+                    nanos = nanos * 10 + (s.charAt(pos) - '0');
+                    pos++;
+                }
+                for (int i = pos - start; i < 9; i++) nanos *= 10;
+            }
+        }
+        LocalDateTime ldt = LocalDateTime.of(date.getYear(), date.getMonth(), date.getDayOfMonth(), hour, minute, second, nanos);
+        if (pos == len) {
+            return ldt.atZone(zone).toInstant();
+        }
+        ZoneOffset offset = parseOffset(s, pos);
+        return offset == null ? null : ldt.toInstant(offset);
+    }
+
+    // Sonderfälle von ISO_INSTANT, die der Schnellpfad nicht nachbildet: 24:00:00 (Folgetag) und Schaltsekunde :60
+    private static boolean needsFormatters(String s) {
+        return s.length() >= 19 && s.charAt(16) == ':'
+                && (digits(s, 11, 13) == 24 || digits(s, 17, 19) == 60);
+    }
+
+    // Erwartet das Datum in den ersten 10 Zeichen von s, Trennzeichen bereits über isAsciiDate geprüft
+    private static LocalDate parseDateAt(String s) {
+        char c2 = s.charAt(2);
+        if (s.charAt(4) == '-') {
+            return strictDate(digits(s, 0, 4), digits(s, 5, 7), digits(s, 8, 10));
+        }
+        if (c2 == '.') {
+            return smartDate(digits(s, 6, 10), digits(s, 3, 5), digits(s, 0, 2));
+        }
+        return smartDate(digits(s, 6, 10), digits(s, 0, 2), digits(s, 3, 5));
+    }
+
+    // Eine der drei Datumsformen mit ASCII-Ziffern in den ersten 10 Zeichen
+    private static boolean isAsciiDate(String s) {
+        if (s.length() < 10) return false;
+        char sep;
+        int a;
+        int b;
+        if (s.charAt(4) == '-' && s.charAt(7) == '-') {
+            sep = '-';
+            a = 4;
+            b = 7;
+        } else if ((s.charAt(2) == '.' || s.charAt(2) == '/') && s.charAt(5) == s.charAt(2)) {
+            sep = s.charAt(2);
+            a = 2;
+            b = 5;
+        } else {
+            return false;
+        }
+        for (int i = 0; i < 10; i++) {
+            if (i == a || i == b) {
+                if (s.charAt(i) != sep) return false;
+            } else if (!isDigit(s.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static ZoneOffset parseOffset(String s, int pos) {
+        int len = s.length();
+        char sign = s.charAt(pos);
+        if (sign == 'Z' || sign == 'z') {
+            return pos + 1 == len ? ZoneOffset.UTC : null;
+        }
+        int rest = len - pos;
+        if ((sign != '+' && sign != '-') || (rest != 3 && rest != 6 && rest != 9)) return null;
+        int hours = digits(s, pos + 1, pos + 3);
+        int minutes = 0;
+        int seconds = 0;
+        if (rest >= 6) {
+            if (s.charAt(pos + 3) != ':') return null;
+            minutes = digits(s, pos + 4, pos + 6);
+        }
+        if (rest == 9) {
+            if (s.charAt(pos + 6) != ':') return null;
+            seconds = digits(s, pos + 7, pos + 9);
+        }
+        if (hours < 0 || minutes < 0 || minutes > 59 || seconds < 0 || seconds > 59) return null;
+        int total = hours * 3600 + minutes * 60 + seconds;
+        if (total > MAX_OFFSET_SECONDS) return null;
+        return ZoneOffset.ofTotalSeconds(sign == '-' ? -total : total);
+    }
+
+    // ISO_LOCAL_DATE (STRICT): der Tag muss im Monat existieren, Jahr 0 ist gültig
+    private static LocalDate strictDate(int year, int month, int day) {
+        if (month < 1 || month > 12 || day < 1) return null;
+        if (day > Month.of(month).length(Year.isLeap(year))) return null;
+        return LocalDate.of(year, month, day);
+    }
+
+    // Muster mit yyyy (SMART): Jahr der Ära ab 1, Tag bis 31 und auf das Monatsende begrenzt
+    private static LocalDate smartDate(int year, int month, int day) {
+        if (year < 1 || month < 1 || month > 12 || day < 1 || day > 31) return null;
+        return LocalDate.of(year, month, Math.min(day, Month.of(month).length(Year.isLeap(year))));
+    }
+
+    private static LocalDate parseDateWithFormatters(String s) {
+        for (DateTimeFormatter f : DATE_FORMATS) {
+            try {
+                return LocalDate.parse(s, f);
+            } catch (DateTimeException ignored) {
+                // nächstes Format
+            }
+        }
+        return null;
+    }
+
+    private static Instant parseInstantWithFormatters(String s, ZoneId zone) {
+        try {
+            return Instant.from(DateTimeFormatter.ISO_INSTANT.parse(s));
+        } catch (DateTimeException ignored) {
+            // weiter mit Offset
+        }
+        try {
+            return Instant.from(DateTimeFormatter.ISO_OFFSET_DATE_TIME.parse(s));
+        } catch (DateTimeException ignored) {
+            // weiter ohne Offset
+        }
+        try {
+            return LocalDateTime.parse(s, DateTimeFormatter.ISO_LOCAL_DATE_TIME).atZone(zone).toInstant();
+        } catch (DateTimeException ignored) {
+            // weiter als Datum
+        }
+        LocalDate d = parseDateWithFormatters(s);
+        return d == null ? null : d.atStartOfDay(zone).toInstant();
+    }
+
+    private static Integer parseIntSlow(String s) {
+        try {
+            return Integer.parseInt(s);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // Liefert -1, wenn der Bereich nicht nur aus Ziffern besteht
+    private static int digits(String s, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (!isDigit(c)) return -1;
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -7,6 +7,7 @@ import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Component;
 
 import java.nio.file.Path;
+import java.util.Locale;
 import java.util.Optional;
 
 @Component
@@ -31,8 +32,9 @@ public class CsvImportRunner implements CommandLineRunner {
         Optional<String> defaultUsername = optionalEnv("IMPORT_USERNAME");
         try {
             CsvImportService.ImportResult res = importService.importCsv(Path.of(csvPath), defaultUsername, dryRun);
-            log.info("CSV import finished{}: imported={}, skipped={}, errors={}, synced={}",
-                    dryRun ? " (dry-run)" : "", res.imported(), res.skipped(), res.errors(), res.syncedUpdatedAtRows());
+            log.info("CSV import finished{}: imported={}, skipped={}, errors={}, duration={}ms, rows/s={}, resumedAfterRow={}",
+                    dryRun ? " (dry-run)" : "", res.imported(), res.skipped(), res.errors(), res.durationMillis(),
+                    String.format(Locale.ROOT, "%.1f", res.rowsPerSecond()), res.resumedAfterRow());
         } catch (Exception e) {
             log.error("CSV import failed: {}", e.getMessage());
         }
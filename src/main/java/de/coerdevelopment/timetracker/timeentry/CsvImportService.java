@@ -1,208 +1,524 @@
 package de.coerdevelopment.timetracker.timeentry;
 
-import com.opencsv.CSVReaderHeaderAware;
-import de.coerdevelopment.timetracker.user.User;
+import com.opencsv.CSVReader;
+import com.opencsv.CSVReaderBuilder;
+import com.opencsv.exceptions.CsvValidationException;
+import de.coerdevelopment.timetracker.report.DailyTotalDelta;
+import de.coerdevelopment.timetracker.report.DailyTotalStore;
 import de.coerdevelopment.timetracker.user.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.support.TransactionTemplate;
 
-import java.io.FileReader;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.time.*;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
 
 @Service
 public class CsvImportService {
     private static final Logger log = LoggerFactory.getLogger(CsvImportService.class);
 
-    public record ImportResult(int imported, int skipped, int errors, int syncedUpdatedAtRows) {}
+    private static final String INSERT_SQL = "insert into time_entries " +
+            "(user_id, subject, description, date_worked, minutes_worked, created_at, updated_at, change_version) " +
+            "values (?, ?, ?, ?, ?, ?, ?, ?)";
+    // exakte (user_id, date_worked)-Paare statt eines Datumsbereichs; greift über den Präfix von idx_time_entries_dedup
+    private static final String EXISTING_KEYS_SQL = "select user_id, subject, date_worked, minutes_worked " +
+            "from time_entries where (user_id, date_worked) in (:keys)";
+    // hält die Bind-Parameter pro Statement unter den Treibergrenzen, auch bei großem IMPORT_CHUNK_SIZE
+    private static final int MAX_KEYS_PER_QUERY = 1000;
+    // wie lange runImport nach einem Abbruch auf den Reader-Thread wartet
+    private static final long READER_JOIN_MILLIS = 5_000;
 
-    private final TimeEntryRepository timeEntryRepository;
+    /**
+     * @param resumedAfterRow last row committed by an earlier, interrupted run of the same file; 0 for a fresh import
+     */
+    public record ImportResult(int imported, int skipped, int errors, long durationMillis, double rowsPerSecond,
+                               int resumedAfterRow) {}
+
+    // Validierte Zeile, die noch auf den Batch-Insert ihres Chunks wartet; endOffset = Byte-Position hinter der Zeile
+    private record PendingEntry(int rowNum, long endOffset, String username, String subject, String description,
+                                LocalDate dateWorked, int minutesWorked, Instant createdAt, Instant updatedAt) {
+        TimeEntryKey keyFor(Long userId) {
+            return new TimeEntryKey(userId, subject, dateWorked, minutesWorked);
+        }
+    }
+
+    // Duplikat-Schlüssel innerhalb der Datei, noch ohne aufgelöste User-ID
+    private record RowKey(String username, String subject, LocalDate dateWorked, int minutesWorked) {}
+
+    private record ChunkOutcome(int imported, int skipped) {}
+
+    // Roh gelesene Zeilen eines Blocks; firstRowNum ist die Zeilennummer der ersten Zeile in der Datei
+    private record RowBlock(int firstRowNum, CsvColumnPlan plan, List<String[]> rows, long[] endOffsets) {}
+
+    // Ergebnis eines Parse-Workers für einen RowBlock, in Dateireihenfolge
+    private record ParsedBlock(int lastRowNum, long lastOffset, List<PendingEntry> entries, int skipped, int errors,
+                               boolean last) {
+        static ParsedBlock end(int lastRowNum, long lastOffset) {
+            return new ParsedBlock(lastRowNum, lastOffset, List.of(), 0, 0, true);
+        }
+    }
+
+    private final ImportCheckpointRepository checkpointRepository;
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
     private final TransactionTemplate txTemplate;
+    private final TransactionTemplate readOnlyTxTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final DailyTotalStore dailyTotals;
+    private final ImportMetrics metrics;
+    private final int chunkSize;
+    private final int blockSize;
+    private final int parseThreads;
+    private final boolean checkpointsEnabled;
+    private final ZoneId zone = ZoneId.systemDefault();
 
-    public CsvImportService(TimeEntryRepository timeEntryRepository,
+    public CsvImportService(ImportCheckpointRepository checkpointRepository,
                             UserRepository userRepository,
-                            PasswordEncoder passwordEncoder,
-                            PlatformTransactionManager txManager) {
-        this.timeEntryRepository = timeEntryRepository;
+                            PlatformTransactionManager txManager,
+                            JdbcTemplate jdbcTemplate,
+                            DailyTotalStore dailyTotals,
+                            ImportMetrics metrics,
+                            @Value("${import.chunkSize:1000}") int chunkSize,
+                            @Value("${import.blockSize:500}") int blockSize,
+                            @Value("${import.parseThreads:0}") int parseThreads,
+                            @Value("${import.checkpoints.enabled:true}") boolean checkpointsEnabled) {
+        this.checkpointRepository = checkpointRepository;
         this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
         this.txTemplate = new TransactionTemplate(txManager);
+        this.readOnlyTxTemplate = new TransactionTemplate(txManager);
+        this.readOnlyTxTemplate.setReadOnly(true);
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.dailyTotals = dailyTotals;
+        this.metrics = metrics;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.blockSize = Math.max(1, blockSize);
+        this.parseThreads = parseThreads > 0 ? parseThreads : Runtime.getRuntime().availableProcessors();
+        this.checkpointsEnabled = checkpointsEnabled;
     }
 
+    /**
+     * Imports the CSV as a pipeline: one reader thread splits the file into row blocks, a pool of
+     * worker threads parses and validates the blocks in parallel, and the calling thread writes the
+     * results in file order in chunks.
+     * Every committed chunk advances a checkpoint for the file's checksum; running the same file again
+     * continues behind the last committed row instead of starting over.
+     */
     public ImportResult importCsv(Path path, Optional<String> defaultUsername, boolean dryRun) throws IOException {
+        return importCsv(path, defaultUsername, dryRun, ImportProgress.NONE);
+    }
+
+    /**
+     * Like {@link #importCsv(Path, Optional, boolean)}, reporting progress after every block.
+     *
+     * @throws CancellationException if the progress reports a cancellation; already committed chunks are kept
+     */
+    public ImportResult importCsv(Path path, Optional<String> defaultUsername, boolean dryRun,
+                                  ImportProgress progress) throws IOException {
         if (!Files.exists(path)) {
             throw new IOException("CSV file not found: " + path);
         }
+        long started = System.nanoTime();
+        ImportCheckpoint checkpoint = dryRun || !checkpointsEnabled ? null : beginCheckpoint(path, defaultUsername.orElse(null));
+        int resumedAfterRow = checkpoint == null || checkpoint.getByteOffset() == 0 ? 0 : checkpoint.getRowNumber();
+        if (checkpoint != null && checkpoint.isCompleted()) {
+            log.info("CSV {} was already imported completely (checksum {}), nothing to do", path, checkpoint.getChecksum());
+            return new ImportResult(0, 0, 0, Math.max(1, (System.nanoTime() - started) / 1_000_000), 0, resumedAfterRow);
+        }
+        if (resumedAfterRow > 0) {
+            log.info("Resuming CSV import of {} after row {} (byte offset {})", path, resumedAfterRow, checkpoint.getByteOffset());
+        }
+        return runImport(Files.newInputStream(path), "file", checkpoint, defaultUsername, dryRun, progress, started);
+    }
+
+    /**
+     * Imports CSV data read directly from a stream, e.g. an HTTP request body, through the same pipeline
+     * as {@link #importCsv(Path, Optional, boolean)}. The stream is consumed line by line and closed at the end;
+     * memory use depends on the block and chunk sizes and the number of distinct usernames, not on the number of rows
+     * (except for dry runs, which keep the duplicate keys of all rows).
+     * Stream imports have no checkpoint: an interrupted upload keeps its committed chunks and a repeated
+     * upload skips them as duplicates. The stream is closed and the reader thread has stopped when this method
+     * returns or throws, so a request body is never touched after the response.
+     */
+    public ImportResult importCsv(InputStream in, Optional<String> defaultUsername, boolean dryRun,
+                                  ImportProgress progress) throws IOException {
+        return runImport(in, "stream", null, defaultUsername, dryRun, progress, System.nanoTime());
+    }
+
+    private ImportResult runImport(InputStream in, String source, ImportCheckpoint checkpoint, Optional<String> defaultUsername,
+                                   boolean dryRun, ImportProgress progress, long started) throws IOException {
+        Long checkpointId = checkpoint == null ? null : checkpoint.getId();
+        int resumedAfterRow = checkpoint == null || checkpoint.getByteOffset() == 0 ? 0 : checkpoint.getRowNumber();
+        long startOffset = checkpoint == null ? 0 : checkpoint.getByteOffset();
+        int firstRowNum = Math.max(1, resumedAfterRow); // Zeile 1 = Header
         int imported = 0;
         int skipped = 0;
         int errors = 0;
-        List<Long> importedIds = new ArrayList<>();
-
-        try (CSVReaderHeaderAware reader = new CSVReaderHeaderAware(new FileReader(path.toFile()))) {
-            Map<String, String> row;
-            int rowNum = 1; // header handled by reader
-            while ((row = reader.readMap()) != null) {
-                rowNum++;
-                try {
-                    Map<String, String> norm = normalizeKeys(row);
-
-                    String username = firstNonBlank(norm, List.of("username", "user", "email")).orElse(null);
-                    if (username == null) {
-                        username = defaultUsername.orElse(null);
+        int lastRowNum = firstRowNum;
+        long lastOffset = startOffset;
+        List<PendingEntry> chunk = new ArrayList<>(chunkSize);
+        // Schlüssel des offenen Chunks; Duplikate aus früheren Chunks findet die DB-Prüfung, da diese bereits committet sind.
+        // Ein Dry-Run committet nichts und behält deshalb die Schlüssel des ganzen Laufs, damit er dasselbe zählt wie ein echter Import
+        Set<RowKey> chunkKeys = new HashSet<>();
+        ImportUserResolver users = new ImportUserResolver(userRepository, txTemplate, !dryRun);
+        // Begrenzt, wie viele Blöcke der Reader dem Writer vorauslaufen darf
+        BlockingQueue<Future<ParsedBlock>> parsed = new ArrayBlockingQueue<>(parseThreads * 2);
+
+        try (ExecutorService workers = Executors.newFixedThreadPool(parseThreads, Thread.ofPlatform().name("csv-parse-", 0).factory())) {
+            Thread reader = Thread.ofPlatform().name("csv-reader").start(() -> readBlocks(in, startOffset, firstRowNum, defaultUsername, workers, parsed));
+            try {
+                while (true) {
+                    if (progress.isCancelled()) {
+                        throw new CancellationException("CSV import cancelled after row " + lastRowNum);
                     }
-                    if (isBlank(username)) {
-                        log.warn("Row {} skipped: missing username and no default username provided", rowNum);
-                        skipped++;
-                        continue;
+                    long waitStart = System.nanoTime();
+                    ParsedBlock block = await(parsed.take());
+                    metrics.waitForBlock().record(System.nanoTime() - waitStart, TimeUnit.NANOSECONDS);
+                    lastRowNum = block.lastRowNum();
+                    lastOffset = block.lastOffset();
+                    if (block.last()) break;
+                    skipped += block.skipped();
+                    errors += block.errors();
+                    for (PendingEntry entry : block.entries()) {
+                        if (!chunkKeys.add(new RowKey(entry.username(), entry.subject(), entry.dateWorked(), entry.minutesWorked()))) {
+                            skipped++;
+                            metrics.skipped(ImportMetrics.DUPLICATE_IN_FILE, 1);
+                            continue;
+                        }
+                        chunk.add(entry);
+                        if (chunk.size() >= chunkSize) {
+                            ChunkOutcome outcome = flushChunk(chunk, users, dryRun, checkpointId);
+                            imported += outcome.imported();
+                            skipped += outcome.skipped();
+                            chunk.clear();
+                            if (!dryRun) {
+                                chunkKeys.clear();
+                            }
+                        }
                     }
-                    User user = userRepository.findByUsername(username).orElseGet(() -> createImportedUser(username));
+                    progress.update(lastRowNum - 1, imported, skipped, errors);
+                }
+                if (!chunk.isEmpty()) {
+                    ChunkOutcome outcome = flushChunk(chunk, users, dryRun, checkpointId);
+                    imported += outcome.imported();
+                    skipped += outcome.skipped();
+                }
+                if (checkpointId != null) {
+                    long finalOffset = lastOffset;
+                    int finalRowNum = lastRowNum;
+                    txTemplate.executeWithoutResult(status ->
+                            checkpointRepository.advance(checkpointId, finalOffset, finalRowNum, true, Instant.now()));
+                }
+                progress.update(lastRowNum - 1, imported, skipped, errors);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("CSV import interrupted", e);
+            } finally {
+                reader.interrupt();
+                workers.shutdownNow();
+                // Stream im aufrufenden Thread schließen, das beendet auch ein blockiertes read() des Readers
+                closeInput(in);
+                awaitReader(reader);
+            }
+        }
+        long durationNanos = System.nanoTime() - started;
+        long durationMillis = Math.max(1, durationNanos / 1_000_000);
+        double rowsPerSecond = (lastRowNum - firstRowNum) * 1000.0 / durationMillis;
+        if (!dryRun) {
+            metrics.finished(source, durationNanos, rowsPerSecond);
+        }
+        return new ImportResult(imported, skipped, errors, durationMillis, rowsPerSecond, resumedAfterRow);
+    }
 
-                    String subject = firstNonBlank(norm, List.of("subject", "title", "betreff", "task")).orElse(null);
-                    if (isBlank(subject)) {
-                        log.warn("Row {} skipped: missing subject", rowNum);
-                        skipped++;
-                        continue;
-                    }
-                    String description = firstNonBlank(norm, List.of("description", "desc", "beschreibung", "notes", "note")).orElse("");
+    private static void closeInput(InputStream in) {
+        try {
+            in.close();
+        } catch (IOException e) {
+            log.debug("Closing CSV input failed: {}", e.getMessage());
+        }
+    }
 
-                    LocalDate dateWorked = parseDate(firstNonBlank(norm, List.of("dateworked", "date", "workdate", "datum", "day")).orElse(null));
-                    if (dateWorked == null) {
-                        log.warn("Row {} skipped: invalid/missing dateWorked", rowNum);
-                        skipped++;
-                        continue;
-                    }
+    private static void awaitReader(Thread reader) {
+        try {
+            if (!reader.join(Duration.ofMillis(READER_JOIN_MILLIS))) {
+                log.warn("CSV reader thread did not stop within {} ms", READER_JOIN_MILLIS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
 
-                    Integer minutes = parseInt(firstNonBlank(norm, List.of("minutesworked", "minutes", "duration", "dauer", "mins", "zeitmin")).orElse(null));
-                    if (minutes == null || minutes <= 0) {
-                        log.warn("Row {} skipped: invalid minutesWorked", rowNum);
-                        skipped++;
-                        continue;
-                    }
+    // Legt den Checkpoint der Datei an oder lädt ihn; ein anderer Fallback-User beginnt den Import neu
+    private ImportCheckpoint beginCheckpoint(Path path, String defaultUsername) throws IOException {
+        String checksum = sha256(path);
+        return txTemplate.execute(status -> {
+            ImportCheckpoint checkpoint = checkpointRepository.findByChecksum(checksum).orElseGet(ImportCheckpoint::new);
+            if (checkpoint.getId() == null || !Objects.equals(checkpoint.getDefaultUsername(), defaultUsername)) {
+                checkpoint.setChecksum(checksum);
+                checkpoint.setDefaultUsername(defaultUsername);
+                checkpoint.setByteOffset(0);
+                checkpoint.setRowNumber(1);
+                checkpoint.setCompleted(false);
+            }
+            checkpoint.setFileName(path.getFileName().toString());
+            checkpoint.setUpdatedAt(Instant.now());
+            return checkpointRepository.save(checkpoint);
+        });
+    }
 
-                    Instant createdAt = parseInstant(firstNonBlank(norm, List.of("createdat", "created", "erstelltam")).orElse(null));
-                    if (createdAt == null) {
-                        createdAt = dateWorked.atStartOfDay(ZoneId.systemDefault()).toInstant();
-                    }
-                    Instant updatedAt = parseInstant(firstNonBlank(norm, List.of("updatedat", "lastupdated", "modified", "geaendertam")).orElse(null));
-                    if (updatedAt == null) {
-                        updatedAt = createdAt;
-                    }
+    private static String sha256(Path path) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        try (InputStream in = Files.newInputStream(path)) {
+            byte[] buffer = new byte[64 * 1024];
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, n);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
 
-                    // Dedup
-                    boolean duplicate = timeEntryRepository.existsByUserAndSubjectAndDateWorkedAndMinutesWorked(user, subject, dateWorked, minutes);
-                    if (duplicate) {
-                        skipped++;
-                        continue;
+    // Läuft im Reader-Thread: zerlegt die Eingabe in Blöcke und reicht sie in Dateireihenfolge an die Worker
+    // startOffset/startRowNum > 0: nach dem Header direkt hinter die zuletzt committete Zeile springen
+    private void readBlocks(InputStream in, long startOffset, int startRowNum, Optional<String> defaultUsername,
+                            ExecutorService workers, BlockingQueue<Future<ParsedBlock>> parsed) {
+        try {
+            int rowNum = startRowNum;
+            long offset = startOffset;
+            try (ByteOffsetLineReader lines = new ByteOffsetLineReader(in);
+                 // ohne verifyReader, sonst prüft CSVReader per mark/read/reset auf EOF
+                 CSVReader reader = new CSVReaderBuilder(lines).withVerifyReader(false).build()) {
+                String[] header = readRow(reader, 1);
+                if (header != null) {
+                    CsvColumnPlan plan = CsvColumnPlan.fromHeader(header);
+                    lines.skipTo(startOffset);
+                    List<String[]> rows = new ArrayList<>(blockSize);
+                    long[] endOffsets = new long[blockSize];
+                    String[] row;
+                    while ((row = readRow(reader, rowNum + 1)) != null) {
+                        rowNum++;
+                        endOffsets[rows.size()] = lines.offset();
+                        rows.add(row);
+                        if (rows.size() >= blockSize) {
+                            submitBlock(new RowBlock(rowNum - rows.size() + 1, plan, rows, endOffsets), defaultUsername, workers, parsed);
+                            rows = new ArrayList<>(blockSize);
+                            endOffsets = new long[blockSize];
+                        }
                     }
-
-                    if (dryRun) {
-                        imported++;
-                        continue;
+                    if (!rows.isEmpty()) {
+                        submitBlock(new RowBlock(rowNum - rows.size() + 1, plan, rows, endOffsets), defaultUsername, workers, parsed);
                     }
-
-                    TimeEntry e = new TimeEntry();
-                    e.setUser(user);
-                    e.setSubject(subject);
-                    e.setDescription(description);
-                    e.setDateWorked(dateWorked);
-                    e.setMinutesWorked(minutes);
-                    e.setCreatedAt(createdAt);
-                    e.setUpdatedAt(updatedAt);
-                    TimeEntry saved = timeEntryRepository.save(e);
-                    if (saved.getId() != null) importedIds.add(saved.getId());
-                    imported++;
-                } catch (Exception ex) {
-                    errors++;
-                    log.warn("Row {} error: {}", rowNum, ex.getMessage());
                 }
+                offset = Math.max(offset, lines.offset());
+            }
+            parsed.put(CompletableFuture.completedFuture(ParsedBlock.end(rowNum, offset)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            // Writer bekommt den Fehler beim nächsten take() und bricht den Import ab
+            try {
+                parsed.put(CompletableFuture.failedFuture(e));
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
             }
         }
-        int synced = 0;
-        if (!dryRun && !importedIds.isEmpty()) {
-            synced = txTemplate.execute(status -> timeEntryRepository.syncUpdatedAtToCreatedAt(importedIds));
-        }
-        return new ImportResult(imported, skipped, errors, synced == 0 ? 0 : synced);
     }
 
-    // Helpers
-    private Map<String, String> normalizeKeys(Map<String, String> original) {
-        Map<String, String> norm = new HashMap<>();
-        for (Map.Entry<String, String> e : original.entrySet()) {
-            if (e.getKey() == null) continue;
-            String k = e.getKey().toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]", "");
-            norm.put(k, e.getValue());
+    private void submitBlock(RowBlock block, Optional<String> defaultUsername, ExecutorService workers,
+                             BlockingQueue<Future<ParsedBlock>> parsed) throws InterruptedException {
+        parsed.put(workers.submit(() -> parseBlock(block, defaultUsername)));
+    }
+
+    private ParsedBlock await(Future<ParsedBlock> future) throws IOException, InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) throw io;
+            throw new IOException("CSV import failed: " + e.getCause().getMessage(), e.getCause());
         }
-        return norm;
     }
 
-    private Optional<String> firstNonBlank(Map<String, String> norm, List<String> keys) {
-        for (String k : keys) {
-            String v = norm.get(k);
-            if (!isBlank(v)) return Optional.of(v.trim());
+    // Läuft in einem Worker-Thread; darf nur zustandslose Helfer verwenden
+    private ParsedBlock parseBlock(RowBlock block, Optional<String> defaultUsername) {
+        return metrics.parseBlock().record(() -> parseRows(block, defaultUsername));
+    }
+
+    private ParsedBlock parseRows(RowBlock block, Optional<String> defaultUsername) {
+        List<PendingEntry> entries = new ArrayList<>(block.rows().size());
+        int skipped = 0;
+        int errors = 0;
+        int rowNum = block.firstRowNum() - 1;
+        for (int i = 0; i < block.rows().size(); i++) {
+            rowNum++;
+            try {
+                PendingEntry entry = parseRow(block.plan(), block.rows().get(i), rowNum, block.endOffsets()[i], defaultUsername);
+                if (entry == null) {
+                    skipped++;
+                } else {
+                    entries.add(entry);
+                }
+            } catch (Exception ex) {
+                errors++;
+                metrics.failed(ImportMetrics.PARSE_ERROR, 1);
+                log.warn("Row {} error: {}", rowNum, ex.getMessage());
+            }
         }
-        return Optional.empty();
+        return new ParsedBlock(rowNum, block.endOffsets()[block.rows().size() - 1], entries, skipped, errors, false);
     }
 
-    private boolean isBlank(String s) { return s == null || s.trim().isEmpty(); }
+    // Liefert null, wenn die Zeile übersprungen wird (Grund wird geloggt)
+    private PendingEntry parseRow(CsvColumnPlan plan, String[] row, int rowNum, long endOffset,
+                                  Optional<String> defaultUsername) {
+        String username = plan.username(row);
+        if (username == null) {
+            username = defaultUsername.map(String::trim).filter(u -> !u.isEmpty()).orElse(null);
+        }
+        if (username == null) {
+            log.warn("Row {} skipped: missing username and no default username provided", rowNum);
+            metrics.skipped(ImportMetrics.MISSING_USERNAME, 1);
+            return null;
+        }
 
-    private Integer parseInt(String s) {
-        if (isBlank(s)) return null;
-        try { return Integer.parseInt(s.trim()); } catch (NumberFormatException e) { return null; }
+        String subject = plan.subject(row);
+        if (subject == null) {
+            log.warn("Row {} skipped: missing subject", rowNum);
+            metrics.skipped(ImportMetrics.MISSING_SUBJECT, 1);
+            return null;
+        }
+        String description = Objects.requireNonNullElse(plan.description(row), "");
+
+        LocalDate dateWorked = CsvFieldParser.parseDate(plan.dateWorked(row));
+        if (dateWorked == null) {
+            log.warn("Row {} skipped: invalid/missing dateWorked", rowNum);
+            metrics.skipped(ImportMetrics.INVALID_DATE, 1);
+            return null;
+        }
+
+        Integer minutes = CsvFieldParser.parseInt(plan.minutesWorked(row));
+        if (minutes == null || minutes <= 0) {
+            log.warn("Row {} skipped: invalid minutesWorked", rowNum);
+            metrics.skipped(ImportMetrics.INVALID_MINUTES, 1);
+            return null;
+        }
+
+        Instant createdAt = CsvFieldParser.parseInstant(plan.createdAt(row), zone);
+        if (createdAt == null) {
+            createdAt = dateWorked.atStartOfDay(zone).toInstant();
+        }
+        Instant updatedAt = CsvFieldParser.parseInstant(plan.updatedAt(row), zone);
+        if (updatedAt == null) {
+            updatedAt = createdAt;
+        }
+        return new PendingEntry(rowNum, endOffset, username, subject, description, dateWorked, minutes, createdAt, updatedAt);
     }
 
-    private LocalDate parseDate(String s) {
-        if (isBlank(s)) return null;
-        List<DateTimeFormatter> fmts = List.of(
-                DateTimeFormatter.ISO_LOCAL_DATE,
-                DateTimeFormatter.ofPattern("dd.MM.yyyy"),
-                DateTimeFormatter.ofPattern("MM/dd/yyyy")
-        );
-        for (DateTimeFormatter f : fmts) {
-            try { return LocalDate.parse(s.trim(), f); } catch (DateTimeParseException ignored) {}
+    private String[] readRow(CSVReader reader, int rowNum) throws IOException {
+        try {
+            return reader.readNext();
+        } catch (CsvValidationException e) {
+            throw new IOException("Invalid CSV in row " + rowNum + ": " + e.getMessage(), e);
         }
-        return null;
     }
 
-    private Instant parseInstant(String s) {
-        if (isBlank(s)) return null;
-        List<DateTimeFormatter> instantLike = List.of(
-                DateTimeFormatter.ISO_INSTANT,
-                DateTimeFormatter.ISO_OFFSET_DATE_TIME,
-                DateTimeFormatter.ISO_LOCAL_DATE_TIME
-        );
-        for (DateTimeFormatter f : instantLike) {
-            try {
-                if (f == DateTimeFormatter.ISO_LOCAL_DATE_TIME) {
-                    LocalDateTime ldt = LocalDateTime.parse(s.trim(), f);
-                    return ldt.atZone(ZoneId.systemDefault()).toInstant();
-                } else {
-                    return Instant.from(f.parse(s.trim()));
-                }
-            } catch (DateTimeParseException ignored) {}
+    /**
+     * Resolves the chunk's users, drops rows that already exist in the database and writes the rest of the
+     * chunk with a single JDBC batch insert in one transaction, together with the report rollups and the
+     * checkpoint (if any).
+     * A failed chunk is rolled back completely and stops the import, so the checkpoint stays behind the last
+     * committed chunk and running the file again retries the failed rows.
+     *
+     * @throws IOException if the chunk could not be written
+     */
+    private ChunkOutcome flushChunk(List<PendingEntry> chunk, ImportUserResolver users, boolean dryRun,
+                                    Long checkpointId) throws IOException {
+        PendingEntry last = chunk.get(chunk.size() - 1);
+        ChunkOutcome outcome;
+        try {
+            outcome = metrics.writeChunk().record(() -> writeChunk(chunk, users, dryRun, checkpointId));
+        } catch (Exception ex) {
+            metrics.failed(ImportMetrics.CHUNK_FAILED, chunk.size());
+            log.warn("Chunk ending at row {} failed, {} rows rolled back: {}", last.rowNum(), chunk.size(), ex.getMessage());
+            throw new IOException("CSV import stopped, chunk ending at row " + last.rowNum() + " failed: " + ex.getMessage(), ex);
+        }
+        if (!dryRun) {
+            metrics.imported(outcome.imported());
         }
-        LocalDate d = parseDate(s);
-        if (d != null) return d.atStartOfDay(ZoneId.systemDefault()).toInstant();
-        return null;
+        metrics.skipped(ImportMetrics.DUPLICATE_EXISTING, outcome.skipped());
+        return outcome;
     }
 
-    private User createImportedUser(String username) {
-        User u = new User();
-        u.setUsername(username);
-        String pw = "imported-" + UUID.randomUUID();
-        u.setPassword(passwordEncoder.encode(pw));
-        u.setRole("USER");
-        return userRepository.save(u);
+    private ChunkOutcome writeChunk(List<PendingEntry> chunk, ImportUserResolver users, boolean dryRun, Long checkpointId) {
+        PendingEntry last = chunk.get(chunk.size() - 1);
+        users.resolveAll(chunk.stream().map(PendingEntry::username).collect(Collectors.toSet()));
+        TransactionTemplate tx = dryRun ? readOnlyTxTemplate : txTemplate;
+        return tx.execute(status -> {
+            Set<TimeEntryKey> existing = loadExistingKeys(chunk, users);
+            List<PendingEntry> fresh = chunk.stream()
+                    .filter(e -> !existing.contains(e.keyFor(users.idOf(e.username()))))
+                    .toList();
+            if (!dryRun && !fresh.isEmpty()) {
+                // updatedAt stammt aus der Datei; für den Delta-Sync zählt die serverseitige Änderungsnummer
+                Map<Long, Long> versions = userRepository.nextEntriesVersions(fresh.stream()
+                        .map(e -> users.idOf(e.username())).collect(Collectors.toSet()));
+                jdbcTemplate.batchUpdate(INSERT_SQL, fresh, fresh.size(), (ps, e) -> {
+                    ps.setLong(1, users.idOf(e.username()));
+                    ps.setString(2, e.subject());
+                    ps.setString(3, e.description());
+                    ps.setObject(4, e.dateWorked());
+                    ps.setInt(5, e.minutesWorked());
+                    ps.setObject(6, e.createdAt().atOffset(ZoneOffset.UTC));
+                    ps.setObject(7, e.updatedAt().atOffset(ZoneOffset.UTC));
+                    ps.setLong(8, versions.get(users.idOf(e.username())));
+                });
+                dailyTotals.applyAll(fresh.stream()
+                        .map(e -> DailyTotalDelta.added(users.idOf(e.username()), e.dateWorked(), e.subject(), e.minutesWorked()))
+                        .toList());
+            }
+            if (checkpointId != null) {
+                checkpointRepository.advance(checkpointId, last.endOffset(), last.rowNum(), false, Instant.now());
+            }
+            return new ChunkOutcome(fresh.size(), chunk.size() - fresh.size());
+        });
     }
-}
 
+    // Vorhandene Schlüssel nur für die (User, Datum)-Paare des Chunks, unabhängig davon, wie weit die Daten streuen
+    private Set<TimeEntryKey> loadExistingKeys(List<PendingEntry> chunk, ImportUserResolver users) {
+        Map<List<Object>, Object[]> pairs = new LinkedHashMap<>();
+        for (PendingEntry e : chunk) {
+            Long userId = users.idOf(e.username());
+            if (userId == null) continue; // Dry-Run: User existiert noch nicht, also auch keine Einträge
+            pairs.putIfAbsent(List.of(userId, e.dateWorked()), new Object[]{userId, e.dateWorked()});
+        }
+        List<Object[]> keys = new ArrayList<>(pairs.values());
+        Set<TimeEntryKey> existing = new HashSet<>();
+        for (int from = 0; from < keys.size(); from += MAX_KEYS_PER_QUERY) {
+            List<Object[]> slice = keys.subList(from, Math.min(keys.size(), from + MAX_KEYS_PER_QUERY));
+            namedJdbcTemplate.query(EXISTING_KEYS_SQL, Map.of("keys", slice), rs -> {
+                existing.add(new TimeEntryKey(rs.getLong(1), rs.getString(2), rs.getObject(3, LocalDate.class), rs.getInt(4)));
+            });
+        }
+        return existing;
+    }
+}
@@ -0,0 +1,57 @@
+package de.coerdevelopment.timetracker.timeentry;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * Last committed position of a CSV import, identified by the SHA-256 checksum of the file.
+ * Advanced in the same transaction as each chunk insert, so it never points past uncommitted rows.
+ */
+@Entity
+@Table(name = "import_checkpoints")
+public class ImportCheckpoint {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true, length = 64)
+    private String checksum;
+
+    @Column(nullable = false)
+    private String fileName;
+
+    @Column(length = 100)
+    private String defaultUsername;
+
+    @Column(nullable = false)
+    private long byteOffset;
+
+    @Column(nullable = false)
+    private int rowNumber;
+
+    @Column(nullable = false)
+    private boolean completed;
+
+    @Column(nullable = false)
+    private Instant updatedAt;
+
+    public ImportCheckpoint() {}
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getChecksum() { return checksum; }
+    public void setChecksum(String checksum) { this.checksum = checksum; }
+    public String getFileName() { return fileName; }
+    public void setFileName(String fileName) { this.fileName = fileName; }
+    public String getDefaultUsername() { return defaultUsername; }
+    public void setDefaultUsername(String defaultUsername) { this.defaultUsername = defaultUsername; }
+    public long getByteOffset() { return byteOffset; }
+    public void setByteOffset(long byteOffset) { this.byteOffset = byteOffset; }
+    public int getRowNumber() { return rowNumber; }
+    public void setRowNumber(int rowNumber) { this.rowNumber = rowNumber; }
+    public boolean isCompleted() { return completed; }
+    public void setCompleted(boolean completed) { this.completed = completed; }
+    public Instant getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -0,0 +1,22 @@
+package de.coerdevelopment.timetracker.timeentry;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Optional;
+
+public interface ImportCheckpointRepository extends JpaRepository<ImportCheckpoint, Long> {
+    Optional<ImportCheckpoint> findByChecksum(String checksum);
+
+    @Modifying
+    @Query("update ImportCheckpoint c set c.byteOffset = :offset, c.rowNumber = :rowNumber, c.completed = :completed, " +
+            "c.updatedAt = :now where c.id = :id")
+    int advance(@Param("id") Long id,
+                @Param("offset") long offset,
+                @Param("rowNumber") int rowNumber,
+                @Param("completed") boolean completed,
+                @Param("now") Instant now);
+}
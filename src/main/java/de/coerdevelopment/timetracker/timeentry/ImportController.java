@@ -4,13 +4,20 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.InputStream;
+import java.net.URI;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.zip.GZIPInputStream;
 
 @RestController
 @RequestMapping("/api/imports")
@@ -19,10 +26,12 @@ import java.util.Optional;
 public class ImportController {
 
     private final CsvImportService importService;
+    private final ImportJobService jobService;
     private final Environment env;
 
-    public ImportController(CsvImportService importService, Environment env) {
+    public ImportController(CsvImportService importService, ImportJobService jobService, Environment env) {
         this.importService = importService;
+        this.jobService = jobService;
         this.env = env;
     }
 
@@ -36,22 +45,10 @@ public class ImportController {
             @RequestParam(value = "dryRun", required = false, defaultValue = "false") boolean dryRun
     ) {
         try {
-            Path baseDir = Path.of(Optional.ofNullable(env.getProperty("IMPORT_DIR")).orElse("/app/imports"));
-            Path normalizedBase = baseDir.toAbsolutePath().normalize();
-            Path candidate = normalizedBase.resolve(filename).normalize();
-
-            // Path Traversal verhindern
-            if (!candidate.startsWith(normalizedBase)) {
-                return ResponseEntity.badRequest().body(Map.of(
-                        "error", "Invalid filename",
-                        "message", "Filename must not contain path separators"
-                ));
-            }
-            if (!Files.exists(candidate)) {
-                return ResponseEntity.badRequest().body(Map.of(
-                        "error", "File not found",
-                        "path", candidate.toString()
-                ));
+            Path candidate = resolveImportFile(filename);
+            ResponseEntity<?> invalid = validateImportFile(candidate);
+            if (invalid != null) {
+                return invalid;
             }
 
             CsvImportService.ImportResult res = importService.importCsv(candidate, Optional.ofNullable(defaultUsername), dryRun);
@@ -60,7 +57,9 @@ public class ImportController {
                     "imported", res.imported(),
                     "skipped", res.skipped(),
                     "errors", res.errors(),
-                    "syncedUpdatedAtRows", res.syncedUpdatedAtRows(),
+                    "durationMillis", res.durationMillis(),
+                    "rowsPerSecond", res.rowsPerSecond(),
+                    "resumedAfterRow", res.resumedAfterRow(),
                     "dryRun", dryRun
             ));
         } catch (Exception e) {
@@ -70,5 +69,104 @@ public class ImportController {
             ));
         }
     }
-}
 
+    @PostMapping(value = "/time-entries/upload",
+            consumes = {"text/csv", "application/gzip", MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    @Operation(summary = "Importiere Time Entries aus hochgeladener CSV",
+            description = "CSV direkt als Request-Body senden, ohne Umweg über den Import-Ordner. Gzip-komprimiert mit " +
+                    "Content-Encoding: gzip oder Content-Type: application/gzip. Die Daten werden beim Lesen importiert " +
+                    "und weder im Speicher noch auf der Platte zwischengespeichert. Parameter wie bei POST /time-entries.")
+    public ResponseEntity<?> uploadTimeEntries(
+            InputStream body,
+            @RequestHeader(value = HttpHeaders.CONTENT_ENCODING, required = false) String contentEncoding,
+            @RequestHeader(value = HttpHeaders.CONTENT_TYPE) String contentType,
+            @RequestParam(value = "username", required = false) String defaultUsername,
+            @RequestParam(value = "dryRun", required = false, defaultValue = "false") boolean dryRun
+    ) {
+        try {
+            boolean gzip = "gzip".equalsIgnoreCase(contentEncoding) || contentType.startsWith("application/gzip");
+            InputStream in = gzip ? new GZIPInputStream(body, 64 * 1024) : body;
+            CsvImportService.ImportResult res = importService.importCsv(in, Optional.ofNullable(defaultUsername), dryRun, ImportProgress.NONE);
+            return ResponseEntity.ok(Map.of(
+                    "imported", res.imported(),
+                    "skipped", res.skipped(),
+                    "errors", res.errors(),
+                    "durationMillis", res.durationMillis(),
+                    "rowsPerSecond", res.rowsPerSecond(),
+                    "dryRun", dryRun
+            ));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body(Map.of(
+                    "error", "Import failed",
+                    "message", String.valueOf(e.getMessage())
+            ));
+        }
+    }
+
+    @PostMapping("/jobs")
+    @Operation(summary = "Starte asynchronen CSV-Import aus dem Import-Ordner",
+            description = "Wie POST /time-entries, läuft aber als Job im Hintergrund. Liefert sofort die Job-ID; " +
+                    "Fortschritt über GET /jobs/{id}, Abbruch über DELETE /jobs/{id}.")
+    public ResponseEntity<?> submitImportJob(
+            @RequestParam("filename") String filename,
+            @RequestParam(value = "username", required = false) String defaultUsername,
+            @RequestParam(value = "dryRun", required = false, defaultValue = "false") boolean dryRun
+    ) {
+        Path candidate = resolveImportFile(filename);
+        ResponseEntity<?> invalid = validateImportFile(candidate);
+        if (invalid != null) {
+            return invalid;
+        }
+        try {
+            ImportJob job = jobService.submit(candidate, Optional.ofNullable(defaultUsername), dryRun);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/imports/jobs/" + job.getId()))
+                    .body(job.toResponse());
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(Map.of(
+                    "error", "Too many import jobs",
+                    "message", "Import queue is full, retry later"
+            ));
+        }
+    }
+
+    @GetMapping("/jobs/{id}")
+    @Operation(summary = "Status eines Import-Jobs")
+    public ResponseEntity<ImportJobResponse> getImportJob(@PathVariable String id) {
+        return ResponseEntity.ok(jobService.find(id).orElseThrow().toResponse());
+    }
+
+    @DeleteMapping("/jobs/{id}")
+    @Operation(summary = "Import-Job abbrechen",
+            description = "Wartende Jobs werden verworfen, laufende stoppen nach dem aktuellen Block. Bereits committete Chunks bleiben erhalten.")
+    public ResponseEntity<ImportJobResponse> cancelImportJob(@PathVariable String id) {
+        return ResponseEntity.accepted().body(jobService.cancel(id).orElseThrow().toResponse());
+    }
+
+    private Path importDir() {
+        Path baseDir = Path.of(Optional.ofNullable(env.getProperty("IMPORT_DIR")).orElse("/app/imports"));
+        return baseDir.toAbsolutePath().normalize();
+    }
+
+    private Path resolveImportFile(String filename) {
+        return importDir().resolve(filename).normalize();
+    }
+
+    // Liefert eine Fehlerantwort oder null, wenn die Datei importiert werden darf
+    private ResponseEntity<?> validateImportFile(Path candidate) {
+        // Path Traversal verhindern
+        if (!candidate.startsWith(importDir())) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "error", "Invalid filename",
+                    "message", "Filename must not contain path separators"
+            ));
+        }
+        if (!Files.exists(candidate)) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "error", "File not found",
+                    "path", candidate.toString()
+            ));
+        }
+        return null;
+    }
+}
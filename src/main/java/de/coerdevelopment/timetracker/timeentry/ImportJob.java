@@ -0,0 +1,99 @@
+package de.coerdevelopment.timetracker.timeentry;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.Future;
+
+/**
+ * An asynchronous CSV import. Counters are written by the job thread only and read by status requests.
+ */
+public class ImportJob implements ImportProgress {
+    public enum Status { QUEUED, RUNNING, COMPLETED, FAILED, CANCELLED }
+
+    private final String id = UUID.randomUUID().toString();
+    private final String owner;
+    private final String file;
+    private final boolean dryRun;
+    private final Instant submittedAt = Instant.now();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile boolean cancelRequested;
+    private volatile int rowsProcessed;
+    private volatile int imported;
+    private volatile int skipped;
+    private volatile int errors;
+    private volatile long startedNanos;
+    private volatile long finishedNanos;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile String message;
+    private volatile Future<?> future;
+
+    ImportJob(String owner, String file, boolean dryRun) {
+        this.owner = owner;
+        this.file = file;
+        this.dryRun = dryRun;
+    }
+
+    @Override
+    public void update(int rowsProcessed, int imported, int skipped, int errors) {
+        this.rowsProcessed = rowsProcessed;
+        this.imported = imported;
+        this.skipped = skipped;
+        this.errors = errors;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return cancelRequested;
+    }
+
+    void start() {
+        startedNanos = System.nanoTime();
+        startedAt = Instant.now();
+        status = Status.RUNNING;
+    }
+
+    void complete(CsvImportService.ImportResult result) {
+        imported = result.imported();
+        skipped = result.skipped();
+        errors = result.errors();
+        finish(Status.COMPLETED, null);
+    }
+
+    void finish(Status status, String message) {
+        finishedNanos = System.nanoTime();
+        finishedAt = Instant.now();
+        this.message = message;
+        this.status = status;
+    }
+
+    void requestCancel() {
+        cancelRequested = true;
+    }
+
+    boolean isFinished() {
+        Status s = status;
+        return s == Status.COMPLETED || s == Status.FAILED || s == Status.CANCELLED;
+    }
+
+    void setFuture(Future<?> future) { this.future = future; }
+    Future<?> getFuture() { return future; }
+
+    public String getId() { return id; }
+    public String getOwner() { return owner; }
+    public Status getStatus() { return status; }
+    public Instant getFinishedAt() { return finishedAt; }
+
+    public ImportJobResponse toResponse() {
+        long started = startedNanos;
+        double rowsPerSecond = 0;
+        if (started != 0) {
+            long end = finishedNanos != 0 ? finishedNanos : System.nanoTime();
+            double seconds = Math.max(1, end - started) / 1_000_000_000.0;
+            rowsPerSecond = rowsProcessed / seconds;
+        }
+        return new ImportJobResponse(id, status.name(), file, dryRun, rowsProcessed, imported, skipped, errors,
+                rowsPerSecond, submittedAt, startedAt, finishedAt, message);
+    }
+}
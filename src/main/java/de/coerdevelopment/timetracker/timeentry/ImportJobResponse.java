@@ -0,0 +1,19 @@
+package de.coerdevelopment.timetracker.timeentry;
+
+import java.time.Instant;
+
+public record ImportJobResponse(
+        String id,
+        String status,
+        String file,
+        boolean dryRun,
+        int rowsProcessed,
+        int imported,
+        int skipped,
+        int errors,
+        double rowsPerSecond,
+        Instant submittedAt,
+        Instant startedAt,
+        Instant finishedAt,
+        String message
+) {}
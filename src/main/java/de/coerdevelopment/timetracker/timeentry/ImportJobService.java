@@ -0,0 +1,123 @@
+package de.coerdevelopment.timetracker.timeentry;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs CSV imports as jobs on a bounded executor, so large files neither block request threads
+ * nor run in unlimited numbers next to each other.
+ */
+@Service
+public class ImportJobService {
+    private static final Logger log = LoggerFactory.getLogger(ImportJobService.class);
+    private static final long SHUTDOWN_WAIT_SECONDS = 10;
+
+    private final CsvImportService importService;
+    private final ThreadPoolExecutor executor;
+    private final Duration retention;
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    public ImportJobService(CsvImportService importService,
+                            @Value("${import.jobs.maxConcurrent:2}") int maxConcurrent,
+                            @Value("${import.jobs.queueCapacity:10}") int queueCapacity,
+                            @Value("${import.jobs.retentionMinutes:60}") long retentionMinutes,
+                            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.importService = importService;
+        this.retention = Duration.ofMinutes(retentionMinutes);
+        int threads = Math.max(1, maxConcurrent);
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                virtualThreads ? Thread.ofVirtual().name("import-job-", 0).factory()
+                        : Thread.ofPlatform().name("import-job-", 0).factory());
+    }
+
+    /**
+     * Queues an import of the given file for the current user.
+     *
+     * @throws RejectedExecutionException if the job queue is full
+     */
+    public ImportJob submit(Path file, Optional<String> defaultUsername, boolean dryRun) {
+        evictFinishedJobs();
+        ImportJob job = new ImportJob(currentUsername(), file.toString(), dryRun);
+        jobs.put(job.getId(), job);
+        try {
+            job.setFuture(executor.submit(() -> run(job, file, defaultUsername, dryRun)));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            throw e;
+        }
+        return job;
+    }
+
+    public Optional<ImportJob> find(String id) {
+        String username = currentUsername();
+        return Optional.ofNullable(jobs.get(id)).filter(j -> j.getOwner().equals(username));
+    }
+
+    /**
+     * Requests cancellation. Queued jobs are dropped right away, running jobs stop after the current block.
+     */
+    public Optional<ImportJob> cancel(String id) {
+        Optional<ImportJob> job = find(id);
+        job.ifPresent(j -> {
+            j.requestCancel();
+            if (j.getStatus() == ImportJob.Status.QUEUED && j.getFuture().cancel(false)) {
+                j.finish(ImportJob.Status.CANCELLED, "Cancelled before start");
+                executor.purge();
+            }
+        });
+        return job;
+    }
+
+    private void run(ImportJob job, Path file, Optional<String> defaultUsername, boolean dryRun) {
+        if (job.isCancelled()) {
+            job.finish(ImportJob.Status.CANCELLED, "Cancelled before start");
+            return;
+        }
+        job.start();
+        try {
+            job.complete(importService.importCsv(file, defaultUsername, dryRun, job));
+        } catch (CancellationException e) {
+            job.finish(ImportJob.Status.CANCELLED, e.getMessage());
+        } catch (Exception e) {
+            log.error("Import job {} failed: {}", job.getId(), e.getMessage());
+            job.finish(ImportJob.Status.FAILED, e.getMessage());
+        }
+    }
+
+    private void evictFinishedJobs() {
+        Instant cutoff = Instant.now().minus(retention);
+        jobs.values().removeIf(j -> j.isFinished() && j.getFinishedAt().isBefore(cutoff));
+    }
+
+    private String currentUsername() {
+        return SecurityContextHolder.getContext().getAuthentication().getName();
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        jobs.values().forEach(ImportJob::requestCancel);
+        executor.shutdown();
+        // laufende Jobs brechen nach dem aktuellen Block ab; darauf warten, bevor die DataSource geschlossen wird
+        if (!executor.awaitTermination(SHUTDOWN_WAIT_SECONDS, TimeUnit.SECONDS)) {
+            log.warn("Import jobs still running after {}s, interrupting", SHUTDOWN_WAIT_SECONDS);
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package de.coerdevelopment.timetracker.timeentry;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters of the CSV import. Row counters carry the outcome and, for skipped and failed rows, the reason;
+ * their rate is the import throughput in rows per second.
+ */
+@Component
+class ImportMetrics {
+    static final String MISSING_USERNAME = "missing_username";
+    static final String MISSING_SUBJECT = "missing_subject";
+    static final String INVALID_DATE = "invalid_date";
+    static final String INVALID_MINUTES = "invalid_minutes";
+    static final String DUPLICATE_IN_FILE = "duplicate_in_file";
+    static final String DUPLICATE_EXISTING = "duplicate_existing";
+    static final String PARSE_ERROR = "parse_error";
+    static final String CHUNK_FAILED = "chunk_failed";
+
+    private final MeterRegistry meterRegistry;
+    private final Counter imported;
+    private final Timer parseBlock;
+    private final Timer writeChunk;
+    private final Timer waitForBlock;
+    private final DistributionSummary rowsPerSecond;
+
+    ImportMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.imported = Counter.builder("import.rows").tag("outcome", "imported").tag("reason", "none").register(meterRegistry);
+        this.parseBlock = stage("parse");
+        this.writeChunk = stage("write");
+        this.waitForBlock = stage("wait");
+        this.rowsPerSecond = DistributionSummary.builder("import.throughput").baseUnit("rows.per.second").register(meterRegistry);
+    }
+
+    private Timer stage(String stage) {
+        return Timer.builder("import.stage").tag("stage", stage).register(meterRegistry);
+    }
+
+    void imported(int rows) {
+        imported.increment(rows);
+    }
+
+    void skipped(String reason, int rows) {
+        rows("skipped", reason, rows);
+    }
+
+    void failed(String reason, int rows) {
+        rows("error", reason, rows);
+    }
+
+    private void rows(String outcome, String reason, int rows) {
+        if (rows > 0) {
+            Counter.builder("import.rows").tag("outcome", outcome).tag("reason", reason).register(meterRegistry).increment(rows);
+        }
+    }
+
+    /** Parsing and validating one row block in a worker thread. */
+    Timer parseBlock() {
+        return parseBlock;
+    }
+
+    /** Writing one chunk: user lookup, duplicate check, batch insert and commit. */
+    Timer writeChunk() {
+        return writeChunk;
+    }
+
+    /** Time the writer waits for the next parsed block, i.e. reading and parsing are the bottleneck. */
+    Timer waitForBlock() {
+        return waitForBlock;
+    }
+
+    void finished(String source, long durationNanos, double rowsPerSecond) {
+        Timer.builder("import.duration").tag("source", source).register(meterRegistry)
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+        this.rowsPerSecond.record(rowsPerSecond);
+    }
+}
@@ -0,0 +1,19 @@
+package de.coerdevelopment.timetracker.timeentry;
+
+/**
+ * Receives progress of a running import and lets the caller stop it between blocks.
+ * Chunks committed before a cancellation stay in the database.
+ */
+public interface ImportProgress {
+    ImportProgress NONE = new ImportProgress() {
+        @Override
+        public void update(int rowsProcessed, int imported, int skipped, int errors) {}
+
+        @Override
+        public boolean isCancelled() { return false; }
+    };
+
+    void update(int rowsProcessed, int imported, int skipped, int errors);
+
+    boolean isCancelled();
+}
@@ -0,0 +1,93 @@
+package de.coerdevelopment.timetracker.timeentry;
+
+import de.coerdevelopment.timetracker.user.User;
+import de.coerdevelopment.timetracker.user.UserRepository;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Resolves the usernames of one import run to user ids.
+ * Known names are memoized; unknown names are loaded per chunk with a single IN query and
+ * missing users are created together in one transaction.
+ */
+class ImportUserResolver {
+    // Importierte User bekommen den Hash eines zufälligen, nie herausgegebenen Passworts. Einmal pro JVM berechnet und
+    // bewusst nicht über den begrenzten Login-Pool, damit Last auf /login keinen Import mit 429 abbricht
+    private static final String PLACEHOLDER_PASSWORD_HASH = new BCryptPasswordEncoder().encode("imported-" + UUID.randomUUID());
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate txTemplate;
+    private final boolean createMissing;
+
+    private final Map<String, Long> idsByUsername = new HashMap<>();
+    private final Set<String> missing = new HashSet<>();
+
+    ImportUserResolver(UserRepository userRepository, TransactionTemplate txTemplate, boolean createMissing) {
+        this.userRepository = userRepository;
+        this.txTemplate = txTemplate;
+        this.createMissing = createMissing;
+    }
+
+    /**
+     * Makes sure all given usernames are resolved. Without createMissing (dry-run) unknown users stay unresolved.
+     */
+    void resolveAll(Collection<String> usernames) {
+        Set<String> unknown = new HashSet<>();
+        for (String username : usernames) {
+            if (!idsByUsername.containsKey(username) && !missing.contains(username)) unknown.add(username);
+        }
+        if (unknown.isEmpty()) return;
+        try {
+            txTemplate.executeWithoutResult(status -> loadOrCreate(unknown));
+        } catch (DataIntegrityViolationException e) {
+            // Paralleler Import hat denselben User gerade angelegt -> nur neu laden
+            txTemplate.executeWithoutResult(status -> load(unknown));
+        }
+    }
+
+    /**
+     * Returns the id for a username resolved before, or null if the user does not exist (dry-run only).
+     */
+    Long idOf(String username) {
+        return idsByUsername.get(username);
+    }
+
+    private void loadOrCreate(Set<String> unknown) {
+        Set<String> notFound = load(unknown);
+        if (notFound.isEmpty()) return;
+        if (!createMissing) {
+            missing.addAll(notFound);
+            return;
+        }
+        List<User> created = new ArrayList<>(notFound.size());
+        for (String username : notFound) {
+            User u = new User();
+            u.setUsername(username);
+            u.setPassword(PLACEHOLDER_PASSWORD_HASH);
+            u.setRole("USER");
+            created.add(u);
+        }
+        for (User u : userRepository.saveAll(created)) {
+            idsByUsername.put(u.getUsername(), u.getId());
+        }
+    }
+
+    private Set<String> load(Set<String> unknown) {
+        Set<String> notFound = new HashSet<>(unknown);
+        for (User u : userRepository.findAllByUsernameIn(unknown)) {
+            idsByUsername.put(u.getUsername(), u.getId());
+            notFound.remove(u.getUsername());
+        }
+        return notFound;
+    }
+}
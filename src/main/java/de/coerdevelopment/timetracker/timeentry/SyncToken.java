@@ -0,0 +1,55 @@
+package de.coerdevelopment.timetracker.timeentry;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in the change stream of a user, ordered by the server-assigned change version, id. Entries after
+ * the position and tombstones with a change version above {@link #version()} are newer than the token.
+ * {@link #syncedAt()} is when the client last caught up; tombstones are only guaranteed from then on.
+ * Clients only see the opaque, URL-safe string form.
+ */
+record SyncToken(long version, long id, Instant syncedAt) {
+
+    static SyncToken initial(Instant now) {
+        return new SyncToken(0, 0, now);
+    }
+
+    String encode() {
+        String raw = version + "_" + id + "_" + syncedAt;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws SyncTokenExpiredException for tokens of the former updatedAt-based format
+     */
+    static SyncToken decode(String token) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("_", -1);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid sync token");
+        }
+        // alte Tokens (updatedAt_id) lassen sich keiner Änderungsnummer zuordnen: einmal komplett synchronisieren
+        if (parts.length == 2 && isInstant(parts[0])) {
+            throw new SyncTokenExpiredException();
+        }
+        try {
+            if (parts.length != 3) throw new IllegalArgumentException();
+            return new SyncToken(Long.parseLong(parts[0]), Long.parseLong(parts[1]), Instant.parse(parts[2]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid sync token");
+        }
+    }
+
+    private static boolean isInstant(String value) {
+        try {
+            Instant.parse(value);
+            return true;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+}
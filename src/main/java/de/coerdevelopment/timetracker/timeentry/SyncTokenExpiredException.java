@@ -0,0 +1,11 @@
+package de.coerdevelopment.timetracker.timeentry;
+
+/**
+ * The sync token is older than the retained tombstones; deletions since then can no longer be reported
+ * and the client has to resync from scratch.
+ */
+public class SyncTokenExpiredException extends RuntimeException {
+    public SyncTokenExpiredException() {
+        super("Sync token expired, full resync required");
+    }
+}
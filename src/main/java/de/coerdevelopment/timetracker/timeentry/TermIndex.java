@@ -0,0 +1,103 @@
+package de.coerdevelopment.timetracker.timeentry;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable inverted index over the entries of one user, used as the search fallback on databases without
+ * full-text support. Tokens and weights follow the PostgreSQL setup: lower-cased letter/digit runs, subject
+ * matches weigh 1.0 and description matches 0.4. All query terms must match.
+ */
+final class TermIndex {
+    private static final Pattern SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final float SUBJECT_WEIGHT = 1.0f;
+    private static final float DESCRIPTION_WEIGHT = 0.4f;
+
+    record Hit(TimeEntryResponse entry, float rank) {}
+
+    private record Posting(int doc, float weight) {}
+
+    private final long version;
+    private final TimeEntryResponse[] entries;
+    private final Map<String, Posting[]> postings;
+
+    private TermIndex(long version, TimeEntryResponse[] entries, Map<String, Posting[]> postings) {
+        this.version = version;
+        this.entries = entries;
+        this.postings = postings;
+    }
+
+    static TermIndex build(long version, List<TimeEntryResponse> entries) {
+        Map<String, List<Posting>> lists = new HashMap<>();
+        for (int doc = 0; doc < entries.size(); doc++) {
+            TimeEntryResponse e = entries.get(doc);
+            Map<String, Float> weights = new HashMap<>();
+            for (String term : tokenize(e.subject())) weights.merge(term, SUBJECT_WEIGHT, Float::sum);
+            for (String term : tokenize(e.description())) weights.merge(term, DESCRIPTION_WEIGHT, Float::sum);
+            int d = doc;
+            weights.forEach((term, weight) -> lists.computeIfAbsent(term, t -> new ArrayList<>()).add(new Posting(d, weight)));
+        }
+        Map<String, Posting[]> postings = new HashMap<>(lists.size() * 4 / 3 + 1);
+        lists.forEach((term, list) -> postings.put(term, list.toArray(Posting[]::new)));
+        return new TermIndex(version, entries.toArray(TimeEntryResponse[]::new), postings);
+    }
+
+    long version() {
+        return version;
+    }
+
+    /**
+     * Up to limit hits after the cursor, ordered by rank desc, id desc.
+     */
+    List<Hit> search(List<String> terms, LocalDate from, LocalDate to, TimeEntrySearchCursor after, int limit) {
+        if (terms.isEmpty()) return List.of();
+        // mit der kürzesten Trefferliste beginnen, die übrigen Terme schneiden nur noch
+        Posting[][] lists = new Posting[terms.size()][];
+        for (int i = 0; i < lists.length; i++) {
+            lists[i] = postings.get(terms.get(i));
+            if (lists[i] == null) return List.of();
+        }
+        Arrays.sort(lists, Comparator.comparingInt(l -> l.length));
+        float[] ranks = new float[entries.length];
+        int[] matches = new int[entries.length];
+        for (Posting p : lists[0]) {
+            ranks[p.doc()] = p.weight();
+            matches[p.doc()] = 1;
+        }
+        for (int i = 1; i < lists.length; i++) {
+            for (Posting p : lists[i]) {
+                if (matches[p.doc()] == i) {
+                    ranks[p.doc()] += p.weight();
+                    matches[p.doc()] = i + 1;
+                }
+            }
+        }
+        List<Hit> hits = new ArrayList<>();
+        for (Posting p : lists[0]) {
+            TimeEntryResponse e = entries[p.doc()];
+            float rank = ranks[p.doc()];
+            if (matches[p.doc()] == lists.length
+                    && !e.dateWorked().isBefore(from) && !e.dateWorked().isAfter(to)
+                    && after.isBefore(rank, e.id())) {
+                hits.add(new Hit(e, rank));
+            }
+        }
+        hits.sort(Comparator.comparingDouble((Hit h) -> h.rank()).reversed()
+                .thenComparing(h -> h.entry().id(), Comparator.reverseOrder()));
+        return hits.size() > limit ? hits.subList(0, limit) : hits;
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isEmpty()) return List.of();
+        return Arrays.stream(SEPARATOR.split(text.toLowerCase(Locale.ROOT)))
+                .filter(t -> !t.isEmpty())
+                .toList();
+    }
+}
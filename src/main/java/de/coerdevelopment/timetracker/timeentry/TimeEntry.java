@@ -2,6 +2,7 @@ package de.coerdevelopment.timetracker.timeentry;
 
 import de.coerdevelopment.timetracker.user.User;
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -11,7 +12,11 @@ import java.time.LocalDate;
 
 @Entity
 @EntityListeners(AuditingEntityListener.class)
-@Table(name = "time_entries")
+@Table(name = "time_entries", indexes = {
+        @Index(name = "idx_time_entries_dedup", columnList = "user_id, date_worked, subject, minutes_worked"),
+        @Index(name = "idx_time_entries_user_date_id", columnList = "user_id, date_worked desc, id desc"),
+        @Index(name = "idx_time_entries_user_change", columnList = "user_id, change_version, id")
+})
 public class TimeEntry {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -40,6 +45,11 @@ public class TimeEntry {
     @Column(nullable = false)
     private Instant updatedAt;
 
+    // Änderungsnummer für den Delta-Sync, serverseitig aus users.entries_version; updatedAt kommt beim Import aus der Datei
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long changeVersion;
+
     public TimeEntry() {}
 
     public Long getId() { return id; }
@@ -58,4 +68,6 @@ public class TimeEntry {
     public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
     public Instant getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
+    public long getChangeVersion() { return changeVersion; }
+    public void setChangeVersion(long changeVersion) { this.changeVersion = changeVersion; }
 }
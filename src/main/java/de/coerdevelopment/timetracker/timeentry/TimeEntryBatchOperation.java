@@ -0,0 +1,20 @@
+package de.coerdevelopment.timetracker.timeentry;
+
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDate;
+
+/**
+ * One operation of a batch request. CREATE needs the entry fields, UPDATE the id and the entry fields,
+ * DELETE only the id. Invalid operations fail on their own and do not affect the rest of the batch.
+ */
+public record TimeEntryBatchOperation(
+        @NotNull Type type,
+        Long id,
+        String subject,
+        String description,
+        LocalDate dateWorked,
+        Integer minutesWorked
+) {
+    public enum Type { CREATE, UPDATE, DELETE }
+}
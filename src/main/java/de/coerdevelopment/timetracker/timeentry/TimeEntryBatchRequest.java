@@ -0,0 +1,10 @@
+package de.coerdevelopment.timetracker.timeentry;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+public record TimeEntryBatchRequest(
+        @NotEmpty List<@Valid TimeEntryBatchOperation> operations
+) {}
@@ -0,0 +1,28 @@
+package de.coerdevelopment.timetracker.timeentry;
+
+import java.util.List;
+
+/**
+ * @param results one item per operation, in request order
+ */
+public record TimeEntryBatchResult(
+        List<Item> results
+) {
+    /**
+     * @param index  position of the operation in the request
+     * @param status HTTP status the single request would have returned (201, 200, 204, 400 or 404)
+     * @param entry  the entry after the operation; null for deletes and failed operations
+     * @param error  reason of a failed operation, otherwise null
+     */
+    public record Item(int index, TimeEntryBatchOperation.Type type, int status, Long id,
+                       TimeEntryResponse entry, String error) {
+
+        static Item ok(int index, TimeEntryBatchOperation.Type type, int status, Long id, TimeEntryResponse entry) {
+            return new Item(index, type, status, id, entry, null);
+        }
+
+        static Item failed(int index, TimeEntryBatchOperation.Type type, int status, Long id, String error) {
+            return new Item(index, type, status, id, null, error);
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package de.coerdevelopment.timetracker.timeentry;
+
+import de.coerdevelopment.timetracker.report.DailyTotalDelta;
+import de.coerdevelopment.timetracker.report.DailyTotalStore;
+import de.coerdevelopment.timetracker.security.CurrentUser;
+import de.coerdevelopment.timetracker.user.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Applies many create/update/delete operations of the current user in one transaction, e.g. when a client
+ * syncs offline work. Each kind of operation is written with a single JDBC batch; operations that fail
+ * validation or reference unknown entries are reported per item and skipped.
+ */
+@Service
+public class TimeEntryBatchService {
+    private static final String SELECT_SQL = "select id, subject, description, date_worked, minutes_worked, " +
+            "created_at, updated_at from time_entries where user_id = :userId and id in (:ids)";
+    private static final String INSERT_SQL = "insert into time_entries " +
+            "(user_id, subject, description, date_worked, minutes_worked, created_at, updated_at, change_version) " +
+            "values (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_SQL = "update time_entries set subject = ?, description = ?, date_worked = ?, " +
+            "minutes_worked = ?, updated_at = ?, change_version = ? where id = ? and user_id = ?";
+    private static final String DELETE_SQL = "delete from time_entries where id = ? and user_id = ?";
+    private static final int MAX_SUBJECT_LENGTH = 200;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final CurrentUser currentUser;
+    private final DailyTotalStore dailyTotals;
+    private final TimeEntryTombstoneStore tombstones;
+    private final UserRepository userRepository;
+    private final Timer batchTimer;
+    private final int maxOperations;
+
+    public TimeEntryBatchService(JdbcTemplate jdbcTemplate,
+                                 CurrentUser currentUser,
+                                 DailyTotalStore dailyTotals,
+                                 TimeEntryTombstoneStore tombstones,
+                                 UserRepository userRepository,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${batch.maxOperations:500}") int maxOperations) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.currentUser = currentUser;
+        this.dailyTotals = dailyTotals;
+        this.tombstones = tombstones;
+        this.userRepository = userRepository;
+        this.batchTimer = Timer.builder("timeentry.service").tag("operation", "batch").register(meterRegistry);
+        this.maxOperations = maxOperations;
+    }
+
+    /**
+     * Operations are applied in request order: an update after a delete of the same entry fails with 404,
+     * several updates of one entry leave the last one in place. Entries created in the same batch cannot be
+     * referenced yet since their ids are only known from the result.
+     */
+    @Transactional
+    public TimeEntryBatchResult apply(List<TimeEntryBatchOperation> operations) {
+        if (operations.size() > maxOperations) {
+            throw new IllegalArgumentException("at most " + maxOperations + " operations per batch");
+        }
+        return batchTimer.record(() -> applyAll(operations));
+    }
+
+    private TimeEntryBatchResult applyAll(List<TimeEntryBatchOperation> operations) {
+        Long userId = currentUser.id();
+        // Mikrosekunden wie in der Datenbank, damit die Antwort dem gespeicherten Stand entspricht
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        TimeEntryBatchResult.Item[] results = new TimeEntryBatchResult.Item[operations.size()];
+        boolean anyValid = false;
+        for (int i = 0; i < operations.size(); i++) {
+            TimeEntryBatchOperation op = operations.get(i);
+            String invalid = validate(op);
+            if (invalid != null) {
+                results[i] = TimeEntryBatchResult.Item.failed(i, op.type(), 400, op.id(), invalid);
+            } else {
+                anyValid = true;
+            }
+        }
+        if (!anyValid) {
+            return new TimeEntryBatchResult(List.of(results));
+        }
+        // vor dem Lesen: sperrt die Benutzerzeile, damit parallele Schreiber desselben Benutzers die Einträge
+        // erst nach unserem Commit lesen und keine veralteten Minuten von den Tagessummen abziehen
+        long version = userRepository.nextEntriesVersion(userId);
+        // aktueller Stand der referenzierten Einträge; wird beim Durchlaufen der Operationen fortgeschrieben
+        Map<Long, TimeEntryResponse> current = loadExisting(userId, operations);
+        List<Integer> creates = new ArrayList<>();
+        List<Pending> updates = new ArrayList<>();
+        List<Pending> deletes = new ArrayList<>();
+        List<DailyTotalDelta> deltas = new ArrayList<>();
+
+        for (int i = 0; i < operations.size(); i++) {
+            TimeEntryBatchOperation op = operations.get(i);
+            if (results[i] != null) {
+                continue;
+            }
+            switch (op.type()) {
+                case CREATE -> creates.add(i);
+                case UPDATE -> {
+                    TimeEntryResponse before = current.get(op.id());
+                    if (before == null) {
+                        results[i] = notFound(i, op);
+                        continue;
+                    }
+                    TimeEntryResponse after = new TimeEntryResponse(op.id(), op.subject(), op.description(),
+                            op.dateWorked(), op.minutesWorked(), before.createdAt(), now);
+                    current.put(op.id(), after);
+                    updates.add(new Pending(i, after, List.of(removed(userId, before), added(userId, after))));
+                    results[i] = TimeEntryBatchResult.Item.ok(i, op.type(), 200, op.id(), after);
+                }
+                case DELETE -> {
+                    TimeEntryResponse before = current.remove(op.id());
+                    if (before == null) {
+                        results[i] = notFound(i, op);
+                        continue;
+                    }
+                    deletes.add(new Pending(i, before, List.of(removed(userId, before))));
+                    results[i] = TimeEntryBatchResult.Item.ok(i, op.type(), 204, op.id(), null);
+                }
+            }
+        }
+
+        insert(userId, now, version, operations, creates, results, deltas);
+        if (!updates.isEmpty()) {
+            int[][] counts = jdbcTemplate.batchUpdate(UPDATE_SQL, updates, updates.size(), (ps, p) -> {
+                TimeEntryResponse e = p.entry();
+                ps.setString(1, e.subject());
+                ps.setString(2, e.description());
+                ps.setObject(3, e.dateWorked());
+                ps.setInt(4, e.minutesWorked());
+                ps.setObject(5, e.updatedAt().atOffset(ZoneOffset.UTC));
+                ps.setLong(6, version);
+                ps.setLong(7, e.id());
+                ps.setLong(8, userId);
+            });
+            collectApplied(updates, counts, operations, results, deltas);
+        }
+        if (!deletes.isEmpty()) {
+            int[][] counts = jdbcTemplate.batchUpdate(DELETE_SQL, deletes, deletes.size(), (ps, p) -> {
+                ps.setLong(1, p.entry().id());
+                ps.setLong(2, userId);
+            });
+            tombstones.recordDeletes(userId, collectApplied(deletes, counts, operations, results, deltas), now, version);
+        }
+        dailyTotals.applyAll(deltas);
+        return new TimeEntryBatchResult(List.of(results));
+    }
+
+    /**
+     * Keeps the rollup deltas of the statements that changed a row. A count of 0 means the row is gone
+     * although it was read above (e.g. removed by a path that does not lock the user); the item becomes a 404.
+     *
+     * @return ids of the applied operations
+     */
+    private static List<Long> collectApplied(List<Pending> pending, int[][] counts, List<TimeEntryBatchOperation> operations,
+                                             TimeEntryBatchResult.Item[] results, List<DailyTotalDelta> deltas) {
+        List<Long> applied = new ArrayList<>();
+        int k = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                Pending p = pending.get(k++);
+                // SUCCESS_NO_INFO (-2) gilt als ausgeführt
+                if (count == 0) {
+                    results[p.index()] = notFound(p.index(), operations.get(p.index()));
+                } else {
+                    deltas.addAll(p.deltas());
+                    applied.add(p.entry().id());
+                }
+            }
+        }
+        return applied;
+    }
+
+    private static TimeEntryBatchResult.Item notFound(int index, TimeEntryBatchOperation op) {
+        return TimeEntryBatchResult.Item.failed(index, op.type(), 404, op.id(), "Time entry not found");
+    }
+
+    // Update oder Delete mit dem Stand des Eintrags, den es schreibt, und seinen Änderungen an den Tagessummen
+    private record Pending(int index, TimeEntryResponse entry, List<DailyTotalDelta> deltas) {}
+
+    private Map<Long, TimeEntryResponse> loadExisting(Long userId, List<TimeEntryBatchOperation> operations) {
+        Set<Long> ids = operations.stream()
+                .filter(op -> op.type() != TimeEntryBatchOperation.Type.CREATE && op.id() != null)
+                .map(TimeEntryBatchOperation::id)
+                .collect(Collectors.toSet());
+        Map<Long, TimeEntryResponse> existing = new HashMap<>();
+        if (ids.isEmpty()) {
+            return existing;
+        }
+        namedJdbcTemplate.query(SELECT_SQL, Map.of("userId", userId, "ids", ids), rs -> {
+            TimeEntryResponse e = new TimeEntryResponse(
+                    rs.getLong(1),
+                    rs.getString(2),
+                    rs.getString(3),
+                    rs.getObject(4, LocalDate.class),
+                    rs.getInt(5),
+                    rs.getObject(6, OffsetDateTime.class).toInstant(),
+                    rs.getObject(7, OffsetDateTime.class).toInstant());
+            existing.put(e.id(), e);
+        });
+        return existing;
+    }
+
+    // Ein Batch-Insert für alle neuen Einträge; die generierten IDs kommen in Batch-Reihenfolge zurück
+    private void insert(Long userId, Instant now, long version, List<TimeEntryBatchOperation> operations, List<Integer> creates,
+                        TimeEntryBatchResult.Item[] results, List<DailyTotalDelta> deltas) {
+        if (creates.isEmpty()) {
+            return;
+        }
+        GeneratedKeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT_SQL, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        TimeEntryBatchOperation op = operations.get(creates.get(i));
+                        ps.setLong(1, userId);
+                        ps.setString(2, op.subject());
+                        ps.setString(3, op.description());
+                        ps.setObject(4, op.dateWorked());
+                        ps.setInt(5, op.minutesWorked());
+                        ps.setObject(6, now.atOffset(ZoneOffset.UTC));
+                        ps.setObject(7, now.atOffset(ZoneOffset.UTC));
+                        ps.setLong(8, version);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return creates.size();
+                    }
+                }, keys);
+        List<Map<String, Object>> keyList = keys.getKeyList();
+        for (int k = 0; k < creates.size(); k++) {
+            int index = creates.get(k);
+            TimeEntryBatchOperation op = operations.get(index);
+            long id = ((Number) keyList.get(k).values().iterator().next()).longValue();
+            TimeEntryResponse created = new TimeEntryResponse(id, op.subject(), op.description(), op.dateWorked(),
+                    op.minutesWorked(), now, now);
+            deltas.add(added(userId, created));
+            results[index] = TimeEntryBatchResult.Item.ok(index, op.type(), 201, id, created);
+        }
+    }
+
+    // Dieselben Regeln wie @Valid auf TimeEntryCreateRequest/TimeEntryUpdateRequest, aber pro Operation
+    private static String validate(TimeEntryBatchOperation op) {
+        if (op.type() != TimeEntryBatchOperation.Type.CREATE && op.id() == null) {
+            return "id is required";
+        }
+        if (op.type() == TimeEntryBatchOperation.Type.DELETE) {
+            return null;
+        }
+        if (op.subject() == null || op.subject().isBlank()) return "subject must not be blank";
+        if (op.subject().length() > MAX_SUBJECT_LENGTH) return "subject must not be longer than " + MAX_SUBJECT_LENGTH;
+        if (op.dateWorked() == null) return "dateWorked must not be null";
+        if (op.minutesWorked() == null || op.minutesWorked() < 1) return "minutesWorked must be at least 1";
+        return null;
+    }
+
+    private static DailyTotalDelta added(Long userId, TimeEntryResponse e) {
+        return DailyTotalDelta.added(userId, e.dateWorked(), e.subject(), e.minutesWorked());
+    }
+
+    private static DailyTotalDelta removed(Long userId, TimeEntryResponse e) {
+        return DailyTotalDelta.removed(userId, e.dateWorked(), e.subject(), e.minutesWorked());
+    }
+}
@@ -0,0 +1,16 @@
+package de.coerdevelopment.timetracker.timeentry;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Entry of the delta sync together with its change version, the keyset position of the sync token.
+ */
+record TimeEntryChange(TimeEntryResponse entry, long changeVersion) {
+
+    // Ziel der Konstruktor-Projektion in TimeEntryRepository.findChanges
+    TimeEntryChange(Long id, String subject, String description, LocalDate dateWorked, Integer minutesWorked,
+                    Instant createdAt, Instant updatedAt, long changeVersion) {
+        this(new TimeEntryResponse(id, subject, description, dateWorked, minutesWorked, createdAt, updatedAt), changeVersion);
+    }
+}
@@ -0,0 +1,16 @@
+package de.coerdevelopment.timetracker.timeentry;
+
+import java.util.List;
+
+/**
+ * @param changed    entries created or modified after the token, oldest change first
+ * @param deletedIds ids of entries deleted after the token
+ * @param nextToken  token for the next call; pass it as since even if nothing changed
+ * @param hasMore    true if the limit was reached and the next call returns further changes right away
+ */
+public record TimeEntryChanges(
+        List<TimeEntryResponse> changed,
+        List<Long> deletedIds,
+        String nextToken,
+        boolean hasMore
+) {}
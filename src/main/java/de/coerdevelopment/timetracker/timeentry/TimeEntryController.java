@@ -4,6 +4,9 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -12,20 +15,27 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import java.net.URI;
-import java.util.List;
+import java.time.LocalDate;
 
 @RestController
 @RequestMapping("/api/time-entries")
 @Tag(name = "Time Entries")
 @SecurityRequirement(name = "bearerAuth")
 public class TimeEntryController {
+    // Clients dürfen cachen, müssen aber per If-None-Match revalidieren; ersetzt das no-store von Spring Security
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
     private final TimeEntryService service;
+    private final TimeEntryBatchService batchService;
 
-    public TimeEntryController(TimeEntryService service) {
+    public TimeEntryController(TimeEntryService service, TimeEntryBatchService batchService) {
         this.service = service;
+        this.batchService = batchService;
     }
 
     @PostMapping
@@ -35,16 +45,74 @@ public class TimeEntryController {
         return ResponseEntity.created(URI.create("/api/time-entries/" + created.id())).body(created);
     }
 
+    @PostMapping("/batch")
+    @Operation(summary = "Create, edit and delete many time entries at once",
+            description = "Applies the operations in order in one transaction, e.g. to sync offline work. " +
+                    "Returns one result per operation with the status the single request would have had; " +
+                    "invalid operations are skipped without affecting the others.")
+    public ResponseEntity<TimeEntryBatchResult> batch(@RequestBody @Valid TimeEntryBatchRequest request) {
+        return ResponseEntity.ok(batchService.apply(request.operations()));
+    }
+
     @GetMapping
-    @Operation(summary = "List tracked times")
-    public ResponseEntity<List<TimeEntryResponse>> list() {
-        return ResponseEntity.ok(service.list());
+    @Operation(summary = "List tracked times",
+            description = "Newest first, page by page. Pass nextCursor of the response as cursor to get the next page; " +
+                    "limit is capped at " + TimeEntryService.MAX_PAGE_SIZE + ". Send the ETag as If-None-Match to get " +
+                    "304 while none of your entries changed.")
+    public ResponseEntity<TimeEntryPage> list(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false, defaultValue = "" + TimeEntryService.DEFAULT_PAGE_SIZE) int limit,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(value = "subject", required = false) String subjectPrefix,
+            WebRequest webRequest
+    ) {
+        String etag = service.listETag(cursor, limit, from, to, subjectPrefix);
+        if (webRequest.checkNotModified(etag)) {
+            return notModified(etag);
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE).body(service.list(cursor, limit, from, to, subjectPrefix));
+    }
+
+    @GetMapping("/search")
+    @Operation(summary = "Search tracked times",
+            description = "Full-text search over subject and description; all words must match, subject matches " +
+                    "rank first. Optionally restricted to a date range. Pass nextCursor of the response as cursor " +
+                    "to get the next page; limit is capped at " + TimeEntryService.MAX_PAGE_SIZE + ".")
+    public ResponseEntity<TimeEntryPage> search(
+            @RequestParam("q") String query,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false, defaultValue = "" + TimeEntryService.DEFAULT_SEARCH_LIMIT) int limit,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        return ResponseEntity.ok(service.search(query, cursor, limit, from, to));
+    }
+
+    @GetMapping("/changes")
+    @Operation(summary = "Changes since the last sync",
+            description = "Entries created or modified and ids of entries deleted since the token. Without since, " +
+                    "all entries are returned (initial sync). Pass nextToken as since on the next call; while hasMore " +
+                    "is true, call again right away. 410 means the token is too old and a full resync is required.")
+    public ResponseEntity<TimeEntryChanges> changes(
+            @RequestParam(value = "since", required = false) String since,
+            @RequestParam(value = "limit", required = false, defaultValue = "" + TimeEntryService.DEFAULT_CHANGES_LIMIT) int limit
+    ) {
+        return ResponseEntity.ok(service.changes(since, limit));
     }
 
     @GetMapping("/{id}")
-    @Operation(summary = "Time entry detail")
-    public ResponseEntity<TimeEntryResponse> get(@PathVariable Long id) {
-        return ResponseEntity.ok(service.get(id));
+    @Operation(summary = "Time entry detail", description = "Supports If-None-Match with the ETag of a previous response.")
+    public ResponseEntity<TimeEntryResponse> get(@PathVariable Long id, WebRequest webRequest) {
+        String etag = service.entryETag(id);
+        if (webRequest.checkNotModified(etag)) {
+            return notModified(etag);
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE).body(service.get(id));
+    }
+
+    private static <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(REVALIDATE).build();
     }
 
     @PutMapping("/{id}")
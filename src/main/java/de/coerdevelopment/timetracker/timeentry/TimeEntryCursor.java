@@ -0,0 +1,35 @@
+package de.coerdevelopment.timetracker.timeentry;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in the list of time entries, ordered by dateWorked desc, id desc.
+ * Clients only see the opaque, URL-safe string form.
+ */
+record TimeEntryCursor(LocalDate dateWorked, long id) {
+
+    // Vor dem ersten Eintrag
+    static final TimeEntryCursor START = new TimeEntryCursor(LocalDate.of(9999, 12, 31), Long.MAX_VALUE);
+
+    static TimeEntryCursor after(TimeEntryResponse e) {
+        return new TimeEntryCursor(e.dateWorked(), e.id());
+    }
+
+    String encode() {
+        String raw = dateWorked + "_" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static TimeEntryCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.indexOf('_');
+            return new TimeEntryCursor(LocalDate.parse(raw.substring(0, sep)), Long.parseLong(raw.substring(sep + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package de.coerdevelopment.timetracker.timeentry;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+import java.util.Locale;
+
+@RestController
+@RequestMapping("/api/exports")
+@Tag(name = "Exports")
+@SecurityRequirement(name = "bearerAuth")
+public class TimeEntryExportController {
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv;charset=UTF-8");
+
+    private final TimeEntryExportService exportService;
+
+    public TimeEntryExportController(TimeEntryExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    @GetMapping("/time-entries")
+    @Operation(summary = "Exportiere eigene Time Entries",
+            description = "Streamt alle eigenen Einträge als NDJSON (format=ndjson, Default) oder CSV (format=csv). " +
+                    "Optional eingeschränkt auf dateWorked zwischen from und to.")
+    public ResponseEntity<StreamingResponseBody> exportOwn(
+            @RequestParam(value = "format", required = false, defaultValue = "ndjson") String format,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        // Der Body wird außerhalb des Request-Threads geschrieben, daher den User vorher auflösen
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        TimeEntryExportService.Format f = parseFormat(format);
+        return stream(f, "time-entries-" + username, out -> exportService.exportUser(username, from, to, f, out));
+    }
+
+    @GetMapping("/time-entries/all")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Exportiere Time Entries aller User (nur Admin)",
+            description = "Wie GET /time-entries, aber über alle User; jede Zeile enthält den username.")
+    public ResponseEntity<StreamingResponseBody> exportAll(
+            @RequestParam(value = "format", required = false, defaultValue = "ndjson") String format,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        TimeEntryExportService.Format f = parseFormat(format);
+        return stream(f, "time-entries", out -> exportService.exportAll(from, to, f, out));
+    }
+
+    private static TimeEntryExportService.Format parseFormat(String format) {
+        try {
+            return TimeEntryExportService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported format: " + format);
+        }
+    }
+
+    private static ResponseEntity<StreamingResponseBody> stream(TimeEntryExportService.Format format, String baseName,
+                                                                StreamingResponseBody body) {
+        boolean csv = format == TimeEntryExportService.Format.CSV;
+        return ResponseEntity.ok()
+                .contentType(csv ? CSV : NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(baseName + (csv ? ".csv" : ".ndjson")).build().toString())
+                .body(body);
+    }
+}
@@ -0,0 +1,15 @@
+package de.coerdevelopment.timetracker.timeentry;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+public record TimeEntryExportRow(
+        Long id,
+        String username,
+        String subject,
+        String description,
+        LocalDate dateWorked,
+        Integer minutesWorked,
+        Instant createdAt,
+        Instant updatedAt
+) {}
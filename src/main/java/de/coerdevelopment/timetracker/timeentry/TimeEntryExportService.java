@@ -0,0 +1,172 @@
+package de.coerdevelopment.timetracker.timeentry;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.opencsv.CSVWriter;
+import com.opencsv.ICSVWriter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes time entries row by row from a JDBC cursor to an output stream. Only the rows of the current
+ * fetch are held in memory, no matter how many entries are exported.
+ */
+@Service
+public class TimeEntryExportService {
+
+    public enum Format { NDJSON, CSV }
+
+    private static final String SELECT_SQL = "select e.id, u.username, e.subject, e.description, e.date_worked, " +
+            "e.minutes_worked, e.created_at, e.updated_at from time_entries e join users u on u.id = e.user_id " +
+            "where e.date_worked between ? and ?";
+    private static final LocalDate MIN_DATE = LocalDate.of(1, 1, 1);
+    private static final LocalDate MAX_DATE = LocalDate.of(9999, 12, 31);
+    private static final String[] CSV_HEADER = {"id", "username", "subject", "description", "dateWorked",
+            "minutesWorked", "createdAt", "updatedAt"};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTxTemplate;
+    private final ObjectWriter rowWriter;
+    private final ObjectMapper objectMapper;
+
+    public TimeEntryExportService(DataSource dataSource,
+                                  PlatformTransactionManager txManager,
+                                  ObjectMapper objectMapper,
+                                  @Value("${export.fetchSize:1000}") int fetchSize) {
+        // eigener JdbcTemplate mit Fetch-Size; PostgreSQL nutzt dann innerhalb der Transaktion einen Cursor
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.readOnlyTxTemplate = new TransactionTemplate(txManager);
+        this.readOnlyTxTemplate.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.rowWriter = objectMapper.writerFor(TimeEntryExportRow.class);
+    }
+
+    /**
+     * Exports the entries of one user, newest first.
+     *
+     * @param from optional lower bound for dateWorked
+     * @param to   optional upper bound for dateWorked
+     */
+    public void exportUser(String username, LocalDate from, LocalDate to, Format format, OutputStream out) throws IOException {
+        export(" and u.username = ? order by e.date_worked desc, e.id desc", List.of(username), from, to, format, out);
+    }
+
+    /**
+     * Exports the entries of all users, ordered by id.
+     */
+    public void exportAll(LocalDate from, LocalDate to, Format format, OutputStream out) throws IOException {
+        export(" order by e.id", List.of(), from, to, format, out);
+    }
+
+    private void export(String sqlSuffix, List<Object> extraArgs, LocalDate from, LocalDate to, Format format,
+                        OutputStream out) throws IOException {
+        List<Object> args = new ArrayList<>();
+        args.add(from == null ? MIN_DATE : from);
+        args.add(to == null ? MAX_DATE : to);
+        args.addAll(extraArgs);
+        RowSink sink = format == Format.CSV ? new CsvSink(out) : new NdjsonSink(out);
+        try {
+            readOnlyTxTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.query(SELECT_SQL + sqlSuffix, (RowCallbackHandler) rs -> {
+                        try {
+                            sink.write(mapRow(rs));
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }, args.toArray()));
+        } catch (UncheckedIOException e) {
+            // typischerweise hat der Client die Verbindung geschlossen
+            throw e.getCause();
+        }
+        sink.finish();
+    }
+
+    private static TimeEntryExportRow mapRow(ResultSet rs) throws SQLException {
+        return new TimeEntryExportRow(
+                rs.getLong(1),
+                rs.getString(2),
+                rs.getString(3),
+                rs.getString(4),
+                rs.getObject(5, LocalDate.class),
+                rs.getInt(6),
+                rs.getObject(7, OffsetDateTime.class).toInstant(),
+                rs.getObject(8, OffsetDateTime.class).toInstant()
+        );
+    }
+
+    private interface RowSink {
+        void write(TimeEntryExportRow row) throws IOException;
+
+        void finish() throws IOException;
+    }
+
+    // Eine JSON-Zeile pro Eintrag
+    private final class NdjsonSink implements RowSink {
+        private final JsonGenerator generator;
+
+        NdjsonSink(OutputStream out) throws IOException {
+            this.generator = objectMapper.getFactory().createGenerator(out)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                    .setRootValueSeparator(null);
+        }
+
+        @Override
+        public void write(TimeEntryExportRow row) throws IOException {
+            rowWriter.writeValue(generator, row);
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            generator.flush();
+        }
+    }
+
+    private static final class CsvSink implements RowSink {
+        private final ICSVWriter writer;
+
+        CsvSink(OutputStream out) {
+            this.writer = new CSVWriter(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)));
+            writer.writeNext(CSV_HEADER, false);
+        }
+
+        @Override
+        public void write(TimeEntryExportRow row) throws IOException {
+            writer.writeNext(new String[]{
+                    String.valueOf(row.id()),
+                    row.username(),
+                    row.subject(),
+                    row.description(),
+                    row.dateWorked().toString(),
+                    String.valueOf(row.minutesWorked()),
+                    row.createdAt().toString(),
+                    row.updatedAt().toString()
+            }, false);
+            // CSVWriter merkt sich Schreibfehler nur, statt sie zu werfen
+            if (writer.getException() != null) {
+                throw writer.getException();
+            }
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+    }
+}
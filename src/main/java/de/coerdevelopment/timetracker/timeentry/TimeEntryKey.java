@@ -0,0 +1,8 @@
+package de.coerdevelopment.timetracker.timeentry;
+
+import java.time.LocalDate;
+
+/**
+ * Fachlicher Schlüssel eines Eintrags, über den der CSV-Import Duplikate erkennt.
+ */
+record TimeEntryKey(Long userId, String subject, LocalDate dateWorked, Integer minutesWorked) {}
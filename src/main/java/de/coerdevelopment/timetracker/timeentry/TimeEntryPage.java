@@ -0,0 +1,11 @@
+package de.coerdevelopment.timetracker.timeentry;
+
+import java.util.List;
+
+/**
+ * @param nextCursor cursor for the following page, null on the last page
+ */
+public record TimeEntryPage(
+        List<TimeEntryResponse> items,
+        String nextCursor
+) {}
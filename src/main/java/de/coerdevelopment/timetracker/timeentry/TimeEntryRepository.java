@@ -1,21 +1,58 @@
 package de.coerdevelopment.timetracker.timeentry;
 
 import de.coerdevelopment.timetracker.user.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.Instant;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
 public interface TimeEntryRepository extends JpaRepository<TimeEntry, Long> {
-    List<TimeEntry> findAllByUserOrderByDateWorkedDescIdDesc(User user);
+    // Lesepfad: Konstruktor-Projektion direkt ins DTO, keine verwalteten Entities und kein Dirty-Checking-Snapshot
+    String RESPONSE = "select new de.coerdevelopment.timetracker.timeentry.TimeEntryResponse(" +
+            "e.id, e.subject, e.description, e.dateWorked, e.minutesWorked, e.createdAt, e.updatedAt) ";
+
+    // Keyset-Pagination; die redundante Bedingung dateWorked <= :cursorDate lässt den Index greifen
+    @Query(RESPONSE + "from TimeEntry e where e.user.id = :userId " +
+            "and e.dateWorked between :from and :to " +
+            "and e.subject like :subjectPattern escape '\\' " +
+            "and e.dateWorked <= :cursorDate " +
+            "and (e.dateWorked < :cursorDate or e.id < :cursorId) " +
+            "order by e.dateWorked desc, e.id desc")
+    List<TimeEntryResponse> findPage(@Param("userId") Long userId,
+                                     @Param("from") LocalDate from,
+                                     @Param("to") LocalDate to,
+                                     @Param("subjectPattern") String subjectPattern,
+                                     @Param("cursorDate") LocalDate cursorDate,
+                                     @Param("cursorId") long cursorId,
+                                     Limit limit);
+
+    @Query(RESPONSE + "from TimeEntry e where e.id = :id and e.user.id = :userId")
+    Optional<TimeEntryResponse> findResponse(@Param("id") Long id, @Param("userId") Long userId);
+
     Optional<TimeEntry> findByIdAndUser(Long id, User user);
-    boolean existsByUserAndSubjectAndDateWorkedAndMinutesWorked(User user, String subject, java.time.LocalDate dateWorked, Integer minutesWorked);
 
-    @Modifying(clearAutomatically = true, flushAutomatically = true)
-    @Query("update TimeEntry e set e.updatedAt = e.createdAt where e.id in :ids")
-    int syncUpdatedAtToCreatedAt(@Param("ids") List<Long> ids);
+    @Query("select e.updatedAt from TimeEntry e where e.id = :id and e.user.id = :userId")
+    Optional<Instant> findUpdatedAt(@Param("id") Long id, @Param("userId") Long userId);
+
+    // Grundlage des In-Memory-Suchindex auf Datenbanken ohne Volltextsuche
+    @Query(RESPONSE + "from TimeEntry e where e.user.id = :userId")
+    List<TimeEntryResponse> findResponses(@Param("userId") Long userId);
+
+    // Delta-Sync: Keyset über (changeVersion, id) bis zur zuletzt committeten Version :until
+    @Query("select new de.coerdevelopment.timetracker.timeentry.TimeEntryChange(" +
+            "e.id, e.subject, e.description, e.dateWorked, e.minutesWorked, e.createdAt, e.updatedAt, e.changeVersion) " +
+            "from TimeEntry e where e.user.id = :userId " +
+            "and e.changeVersion >= :after and e.changeVersion <= :until " +
+            "and (e.changeVersion > :after or e.id > :afterId) " +
+            "order by e.changeVersion, e.id")
+    List<TimeEntryChange> findChanges(@Param("userId") Long userId,
+                                      @Param("after") long after,
+                                      @Param("afterId") long afterId,
+                                      @Param("until") long until,
+                                      Limit limit);
 }
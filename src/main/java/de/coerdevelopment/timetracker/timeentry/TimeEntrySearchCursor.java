@@ -0,0 +1,35 @@
+package de.coerdevelopment.timetracker.timeentry;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position in a ranked search result, ordered by rank desc, id desc.
+ * Clients only see the opaque, URL-safe string form.
+ */
+record TimeEntrySearchCursor(float rank, long id) {
+
+    // Vor dem ersten Treffer
+    static final TimeEntrySearchCursor START = new TimeEntrySearchCursor(Float.MAX_VALUE, Long.MAX_VALUE);
+
+    boolean isBefore(float otherRank, long otherId) {
+        return otherRank < rank || (otherRank == rank && otherId < id);
+    }
+
+    String encode() {
+        // Bitmuster statt Dezimaldarstellung, damit der Rang beim Vergleich exakt gleich bleibt
+        String raw = Integer.toHexString(Float.floatToIntBits(rank)) + "_" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static TimeEntrySearchCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.indexOf('_');
+            float rank = Float.intBitsToFloat(Integer.parseUnsignedInt(raw.substring(0, sep), 16));
+            return new TimeEntrySearchCursor(rank, Long.parseLong(raw.substring(sep + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package de.coerdevelopment.timetracker.timeentry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Adds the full-text search column and index on startup. The first run on an existing database fills the
+ * column for all rows, so it runs before the startup CSV import.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class TimeEntrySearchInitializer implements CommandLineRunner {
+    private static final Logger log = LoggerFactory.getLogger(TimeEntrySearchInitializer.class);
+
+    private final TimeEntrySearchStore store;
+
+    public TimeEntrySearchInitializer(TimeEntrySearchStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public void run(String... args) {
+        if (!store.ensureSchema()) {
+            log.info("No PostgreSQL full-text support, time entry search uses the in-memory index");
+        }
+    }
+}
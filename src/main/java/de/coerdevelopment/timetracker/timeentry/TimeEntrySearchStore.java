@@ -0,0 +1,97 @@
+package de.coerdevelopment.timetracker.timeentry;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import de.coerdevelopment.timetracker.user.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * Full-text search over subject and description of a user's entries. PostgreSQL uses a generated tsvector
+ * column with a GIN index, so every write path keeps it current. Other databases (H2 in tests) use an
+ * in-memory {@link TermIndex} per user, rebuilt whenever the user's entries version changes.
+ */
+@Component
+public class TimeEntrySearchStore {
+    // Konfiguration 'simple': keine Stammformen, Ticketnummern und Namen bleiben unverändert suchbar
+    private static final String CREATE_COLUMN = "alter table time_entries add column if not exists search_vector tsvector " +
+            "generated always as (setweight(to_tsvector('simple', coalesce(subject, '')), 'A') || " +
+            "setweight(to_tsvector('simple', coalesce(description, '')), 'B')) stored";
+    private static final String CREATE_INDEX = "create index if not exists idx_time_entries_search " +
+            "on time_entries using gin (search_vector)";
+    // Rang in der Unterabfrage, damit die Cursor-Bedingung auf dem berechneten Wert arbeitet
+    private static final String SEARCH_POSTGRES = "select id, subject, description, date_worked, minutes_worked, " +
+            "created_at, updated_at, rank from (" +
+            "select e.id, e.subject, e.description, e.date_worked, e.minutes_worked, e.created_at, e.updated_at, " +
+            "ts_rank(e.search_vector, q.query) as rank " +
+            "from time_entries e, websearch_to_tsquery('simple', ?) as q(query) " +
+            "where e.search_vector @@ q.query and e.user_id = ? and e.date_worked between ? and ?" +
+            ") r where r.rank < ? or (r.rank = ? and r.id < ?) " +
+            "order by r.rank desc, r.id desc limit ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TimeEntryRepository repository;
+    private final UserRepository userRepository;
+    private final Cache<Long, TermIndex> fallback;
+    private volatile Boolean postgres;
+
+    public TimeEntrySearchStore(JdbcTemplate jdbcTemplate, TimeEntryRepository repository, UserRepository userRepository,
+                                @Value("${search.fallbackMaxUsers:100}") int fallbackMaxUsers) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.repository = repository;
+        this.userRepository = userRepository;
+        this.fallback = Caffeine.newBuilder().maximumSize(fallbackMaxUsers).build();
+    }
+
+    /**
+     * Adds the search column and its index on PostgreSQL. Idempotent; returns false on other databases.
+     */
+    public boolean ensureSchema() {
+        if (!isPostgres()) return false;
+        jdbcTemplate.execute(CREATE_COLUMN);
+        jdbcTemplate.execute(CREATE_INDEX);
+        return true;
+    }
+
+    /**
+     * Up to limit entries of the user matching all words of the query, after the cursor, best match first.
+     * Must run in a transaction.
+     */
+    List<TermIndex.Hit> search(Long userId, String query, LocalDate from, LocalDate to,
+                               TimeEntrySearchCursor after, int limit) {
+        if (isPostgres()) {
+            return jdbcTemplate.query(SEARCH_POSTGRES, (rs, i) -> new TermIndex.Hit(new TimeEntryResponse(
+                            rs.getLong(1),
+                            rs.getString(2),
+                            rs.getString(3),
+                            rs.getObject(4, LocalDate.class),
+                            rs.getInt(5),
+                            rs.getObject(6, OffsetDateTime.class).toInstant(),
+                            rs.getObject(7, OffsetDateTime.class).toInstant()),
+                            rs.getFloat(8)),
+                    query, userId, from, to, after.rank(), after.rank(), after.id(), limit);
+        }
+        // Version vor den Einträgen lesen: eine parallele Änderung führt höchstens zu einem weiteren Neuaufbau
+        long version = userRepository.findEntriesVersionById(userId).orElseThrow();
+        TermIndex index = fallback.getIfPresent(userId);
+        if (index == null || index.version() != version) {
+            index = TermIndex.build(version, repository.findResponses(userId));
+            fallback.put(userId, index);
+        }
+        return index.search(TermIndex.tokenize(query).stream().distinct().toList(), from, to, after, limit);
+    }
+
+    private boolean isPostgres() {
+        if (postgres == null) {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+            postgres = "PostgreSQL".equalsIgnoreCase(product);
+        }
+        return postgres;
+    }
+}
@@ -1,73 +1,280 @@
 package de.coerdevelopment.timetracker.timeentry;
 
+import de.coerdevelopment.timetracker.report.DailyTotalDelta;
+import de.coerdevelopment.timetracker.report.DailyTotalStore;
+import de.coerdevelopment.timetracker.security.CurrentUser;
 import de.coerdevelopment.timetracker.user.User;
 import de.coerdevelopment.timetracker.user.UserRepository;
-import org.springframework.security.core.context.SecurityContextHolder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Base64;
 import java.util.List;
 
 @Service
 public class TimeEntryService {
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+    public static final int DEFAULT_CHANGES_LIMIT = 500;
+    public static final int MAX_CHANGES_LIMIT = 1000;
+    public static final int DEFAULT_SEARCH_LIMIT = 20;
+    public static final int MAX_QUERY_LENGTH = 200;
+    private static final LocalDate MIN_DATE = LocalDate.of(1, 1, 1);
+    private static final LocalDate MAX_DATE = LocalDate.of(9999, 12, 31);
+
     private final TimeEntryRepository repository;
+    private final CurrentUser currentUser;
+    private final DailyTotalStore dailyTotals;
+    private final TimeEntryTombstoneStore tombstones;
+    private final TimeEntrySearchStore search;
     private final UserRepository userRepository;
+    private final Timer createTimer;
+    private final Timer listTimer;
+    private final Timer getTimer;
+    private final Timer updateTimer;
+    private final Timer deleteTimer;
+    private final Timer changesTimer;
+    private final Timer searchTimer;
 
-    public TimeEntryService(TimeEntryRepository repository, UserRepository userRepository) {
+    public TimeEntryService(TimeEntryRepository repository, CurrentUser currentUser, DailyTotalStore dailyTotals,
+                            TimeEntryTombstoneStore tombstones, TimeEntrySearchStore search,
+                            UserRepository userRepository, MeterRegistry meterRegistry) {
         this.repository = repository;
+        this.currentUser = currentUser;
+        this.dailyTotals = dailyTotals;
+        this.tombstones = tombstones;
+        this.search = search;
         this.userRepository = userRepository;
+        this.createTimer = timer(meterRegistry, "create");
+        this.listTimer = timer(meterRegistry, "list");
+        this.getTimer = timer(meterRegistry, "get");
+        this.updateTimer = timer(meterRegistry, "update");
+        this.deleteTimer = timer(meterRegistry, "delete");
+        this.changesTimer = timer(meterRegistry, "changes");
+        this.searchTimer = timer(meterRegistry, "search");
+    }
+
+    // Misst die Methode innerhalb der Transaktion; der Commit ist in http.server.requests enthalten
+    private static Timer timer(MeterRegistry meterRegistry, String operation) {
+        return Timer.builder("timeentry.service").tag("operation", operation).register(meterRegistry);
     }
 
+    // Referenz ohne SELECT auf users; die ID kommt aus dem Token
     private User currentUser() {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        return userRepository.findByUsername(username).orElseThrow();
+        return currentUser.reference();
     }
 
     @Transactional
     public TimeEntryResponse create(TimeEntryCreateRequest req) {
-        User user = currentUser();
-        TimeEntry e = new TimeEntry();
-        e.setUser(user);
-        e.setSubject(req.subject());
-        e.setDescription(req.description());
-        e.setDateWorked(req.dateWorked());
-        e.setMinutesWorked(req.minutesWorked());
-        TimeEntry saved = repository.save(e);
-        return toResponse(saved);
+        return createTimer.record(() -> {
+            User user = currentUser();
+            TimeEntry e = new TimeEntry();
+            e.setUser(user);
+            e.setSubject(req.subject());
+            e.setDescription(req.description());
+            e.setDateWorked(req.dateWorked());
+            e.setMinutesWorked(req.minutesWorked());
+            e.setChangeVersion(userRepository.nextEntriesVersion(user.getId()));
+            TimeEntry saved = repository.save(e);
+            dailyTotals.apply(DailyTotalDelta.added(user.getId(), saved.getDateWorked(), saved.getSubject(), saved.getMinutesWorked()));
+            return toResponse(saved);
+        });
+    }
+
+    /**
+     * One page of the user's entries, newest first. Filters are optional; the subject filter is a prefix match.
+     *
+     * @param cursor nextCursor of the previous page, null for the first page
+     * @param limit  page size, capped at {@link #MAX_PAGE_SIZE}
+     */
+    @Transactional(readOnly = true)
+    public TimeEntryPage list(String cursor, int limit, LocalDate from, LocalDate to, String subjectPrefix) {
+        return listTimer.record(() -> {
+            if (limit < 1) {
+                throw new IllegalArgumentException("limit must be positive");
+            }
+            if (from != null && to != null && from.isAfter(to)) {
+                throw new IllegalArgumentException("from must not be after to");
+            }
+            int pageSize = Math.min(limit, MAX_PAGE_SIZE);
+            TimeEntryCursor position = cursor == null || cursor.isBlank() ? TimeEntryCursor.START : TimeEntryCursor.decode(cursor);
+            // ein Eintrag mehr, um zu erkennen, ob es eine weitere Seite gibt
+            List<TimeEntryResponse> entries = repository.findPage(currentUser.id(),
+                    from == null ? MIN_DATE : from,
+                    to == null ? MAX_DATE : to,
+                    likePrefix(subjectPrefix),
+                    position.dateWorked(),
+                    position.id(),
+                    Limit.of(pageSize + 1));
+            boolean more = entries.size() > pageSize;
+            List<TimeEntryResponse> page = more ? entries.subList(0, pageSize) : entries;
+            String nextCursor = more ? TimeEntryCursor.after(page.get(pageSize - 1)).encode() : null;
+            return new TimeEntryPage(page, nextCursor);
+        });
+    }
+
+    /**
+     * Entries created or modified and ids of entries deleted after the given sync token, oldest change first.
+     * Every write path stamps its rows with the next entries version of the user; the call reads up to the
+     * committed version, below which no transaction of the user can still be running.
+     *
+     * @param since nextToken of the previous call, null for the initial sync (all entries, no deletions)
+     * @throws SyncTokenExpiredException if the token is older than the retained tombstones
+     */
+    @Transactional(readOnly = true)
+    public TimeEntryChanges changes(String since, int limit) {
+        return changesTimer.record(() -> {
+            if (limit < 1) {
+                throw new IllegalArgumentException("limit must be positive");
+            }
+            int pageSize = Math.min(limit, MAX_CHANGES_LIMIT);
+            boolean initial = since == null || since.isBlank();
+            Instant now = Instant.now();
+            SyncToken token = initial ? SyncToken.initial(now) : SyncToken.decode(since);
+            if (!initial && tombstones.isExpired(token.syncedAt(), now)) {
+                throw new SyncTokenExpiredException();
+            }
+            Long userId = currentUser.id();
+            // Schreiber eines Benutzers sind über die Zeile in users serialisiert: ist diese Version committet,
+            // sind es alle kleineren auch, spätere Commits erhalten eine größere Version
+            long until = userRepository.findEntriesVersionById(userId).orElseThrow();
+            List<TimeEntryChange> entries = repository.findChanges(userId, token.version(), token.id(), until,
+                    Limit.of(pageSize + 1));
+            boolean more = entries.size() > pageSize;
+            List<TimeEntryChange> page = more ? entries.subList(0, pageSize) : entries;
+            // bei einer vollen Seite reicht das Fenster nur bis zur letzten gelieferten Änderung
+            SyncToken next = more
+                    ? new SyncToken(page.get(pageSize - 1).changeVersion(), page.get(pageSize - 1).entry().id(), token.syncedAt())
+                    : new SyncToken(until, Long.MAX_VALUE, now);
+            List<Long> deleted = initial ? List.of()
+                    : tombstones.deletedIds(userId, token.version(), next.version());
+            return new TimeEntryChanges(page.stream().map(TimeEntryChange::entry).toList(), deleted, next.encode(), more);
+        });
     }
 
+    /**
+     * Entries whose subject or description contain all words of the query, best match first.
+     * Subject matches rank above description matches.
+     *
+     * @param cursor nextCursor of the previous page, null for the first page
+     * @param limit  page size, capped at {@link #MAX_PAGE_SIZE}
+     */
     @Transactional(readOnly = true)
-    public List<TimeEntryResponse> list() {
-        User user = currentUser();
-        return repository.findAllByUserOrderByDateWorkedDescIdDesc(user).stream().map(this::toResponse).toList();
+    public TimeEntryPage search(String query, String cursor, int limit, LocalDate from, LocalDate to) {
+        return searchTimer.record(() -> {
+            if (query == null || query.isBlank()) {
+                throw new IllegalArgumentException("q must not be blank");
+            }
+            if (query.length() > MAX_QUERY_LENGTH) {
+                throw new IllegalArgumentException("q must not be longer than " + MAX_QUERY_LENGTH + " characters");
+            }
+            if (limit < 1) {
+                throw new IllegalArgumentException("limit must be positive");
+            }
+            if (from != null && to != null && from.isAfter(to)) {
+                throw new IllegalArgumentException("from must not be after to");
+            }
+            int pageSize = Math.min(limit, MAX_PAGE_SIZE);
+            TimeEntrySearchCursor position = cursor == null || cursor.isBlank()
+                    ? TimeEntrySearchCursor.START : TimeEntrySearchCursor.decode(cursor);
+            List<TermIndex.Hit> hits = search.search(currentUser.id(), query,
+                    from == null ? MIN_DATE : from,
+                    to == null ? MAX_DATE : to,
+                    position,
+                    pageSize + 1);
+            boolean more = hits.size() > pageSize;
+            List<TermIndex.Hit> page = more ? hits.subList(0, pageSize) : hits;
+            String nextCursor = null;
+            if (more) {
+                TermIndex.Hit last = page.get(pageSize - 1);
+                nextCursor = new TimeEntrySearchCursor(last.rank(), last.entry().id()).encode();
+            }
+            return new TimeEntryPage(page.stream().map(TermIndex.Hit::entry).toList(), nextCursor);
+        });
+    }
+
+    /**
+     * Strong ETag of a list page. Built from the user's entries version and the query parameters only,
+     * so a conditional request costs one primary key lookup on users and no entry query.
+     */
+    public String listETag(String cursor, int limit, LocalDate from, LocalDate to, String subjectPrefix) {
+        Long userId = currentUser.id();
+        long version = userRepository.findEntriesVersionById(userId).orElseThrow();
+        return etag(userId + ":" + version + ":" + cursor + ":" + limit + ":" + from + ":" + to + ":" + subjectPrefix);
+    }
+
+    /**
+     * Strong ETag of a single entry, built from its updatedAt.
+     *
+     * @throws java.util.NoSuchElementException if the entry does not exist or belongs to another user
+     */
+    public String entryETag(Long id) {
+        Long userId = currentUser.id();
+        Instant updatedAt = repository.findUpdatedAt(id, userId).orElseThrow();
+        return etag(userId + ":" + id + ":" + updatedAt);
+    }
+
+    private static String etag(String state) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(state.getBytes(StandardCharsets.UTF_8));
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(hash, 16)) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String likePrefix(String prefix) {
+        if (prefix == null) return "%";
+        return prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
     }
 
     @Transactional(readOnly = true)
     public TimeEntryResponse get(Long id) {
-        User user = currentUser();
-        TimeEntry e = repository.findByIdAndUser(id, user).orElseThrow();
-        return toResponse(e);
+        return getTimer.record(() -> repository.findResponse(id, currentUser.id()).orElseThrow());
     }
 
     @Transactional
     public TimeEntryResponse update(Long id, TimeEntryUpdateRequest req) {
-        User user = currentUser();
-        TimeEntry e = repository.findByIdAndUser(id, user).orElseThrow();
-        e.setSubject(req.subject());
-        e.setDescription(req.description());
-        e.setDateWorked(req.dateWorked());
-        e.setMinutesWorked(req.minutesWorked());
-        return toResponse(e);
+        return updateTimer.record(() -> {
+            User user = currentUser();
+            // erst die Benutzerzeile sperren, dann lesen: sonst ziehen zwei parallele Updates denselben alten Wert ab
+            long version = userRepository.nextEntriesVersion(user.getId());
+            TimeEntry e = repository.findByIdAndUser(id, user).orElseThrow();
+            DailyTotalDelta before = DailyTotalDelta.removed(user.getId(), e.getDateWorked(), e.getSubject(), e.getMinutesWorked());
+            e.setSubject(req.subject());
+            e.setDescription(req.description());
+            e.setDateWorked(req.dateWorked());
+            e.setMinutesWorked(req.minutesWorked());
+            e.setChangeVersion(version);
+            dailyTotals.applyAll(List.of(before,
+                    DailyTotalDelta.added(user.getId(), e.getDateWorked(), e.getSubject(), e.getMinutesWorked())));
+            return toResponse(e);
+        });
     }
 
     @Transactional
     public void delete(Long id) {
-        User user = currentUser();
-        TimeEntry e = repository.findByIdAndUser(id, user).orElseThrow();
-        repository.delete(e);
+        deleteTimer.record(() -> {
+            User user = currentUser();
+            long version = userRepository.nextEntriesVersion(user.getId());
+            TimeEntry e = repository.findByIdAndUser(id, user).orElseThrow();
+            repository.delete(e);
+            tombstones.recordDeletes(user.getId(), List.of(id), Instant.now().truncatedTo(ChronoUnit.MICROS), version);
+            dailyTotals.apply(DailyTotalDelta.removed(user.getId(), e.getDateWorked(), e.getSubject(), e.getMinutesWorked()));
+        });
     }
 
-    private TimeEntryResponse toResponse(TimeEntry e) {
+    static TimeEntryResponse toResponse(TimeEntry e) {
         return new TimeEntryResponse(
                 e.getId(),
                 e.getSubject(),
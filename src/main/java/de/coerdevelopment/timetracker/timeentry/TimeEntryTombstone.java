@@ -0,0 +1,47 @@
+package de.coerdevelopment.timetracker.timeentry;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.time.Instant;
+
+/**
+ * Trace of a deleted time entry, so delta sync can report the deletion. Tombstones are kept for
+ * sync.tombstoneRetentionDays; sync tokens older than that require a full resync.
+ */
+@Entity
+@Table(name = "time_entry_tombstones", indexes = {
+        @Index(name = "idx_time_entry_tombstones_user_deleted", columnList = "user_id, deleted_at"),
+        @Index(name = "idx_time_entry_tombstones_user_change", columnList = "user_id, change_version")
+})
+public class TimeEntryTombstone {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private Long entryId;
+
+    @Column(nullable = false)
+    private Instant deletedAt;
+
+    // Änderungsnummer der löschenden Transaktion, siehe TimeEntry.changeVersion
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long changeVersion;
+
+    public TimeEntryTombstone() {}
+
+    public Long getId() { return id; }
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+    public Long getEntryId() { return entryId; }
+    public void setEntryId(Long entryId) { this.entryId = entryId; }
+    public Instant getDeletedAt() { return deletedAt; }
+    public void setDeletedAt(Instant deletedAt) { this.deletedAt = deletedAt; }
+    public long getChangeVersion() { return changeVersion; }
+    public void setChangeVersion(long changeVersion) { this.changeVersion = changeVersion; }
+}
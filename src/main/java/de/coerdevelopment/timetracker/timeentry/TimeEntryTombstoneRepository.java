@@ -0,0 +1,21 @@
+package de.coerdevelopment.timetracker.timeentry;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface TimeEntryTombstoneRepository extends JpaRepository<TimeEntryTombstone, Long> {
+    @Query("select t.entryId from TimeEntryTombstone t where t.userId = :userId " +
+            "and t.changeVersion > :after and t.changeVersion <= :until order by t.changeVersion, t.id")
+    List<Long> findDeletedEntryIds(@Param("userId") Long userId,
+                                   @Param("after") long after,
+                                   @Param("until") long until);
+
+    @Modifying
+    @Query("delete from TimeEntryTombstone t where t.userId = :userId and t.deletedAt < :cutoff")
+    int deleteOlderThan(@Param("userId") Long userId, @Param("cutoff") Instant cutoff);
+}
@@ -0,0 +1,60 @@
+package de.coerdevelopment.timetracker.timeentry;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Writes and reads the tombstones of deleted time entries. Must be called inside the transaction
+ * that deletes the entries.
+ */
+@Component
+public class TimeEntryTombstoneStore {
+    private static final String INSERT_SQL = "insert into time_entry_tombstones (user_id, entry_id, deleted_at, change_version) " +
+            "values (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TimeEntryTombstoneRepository repository;
+    private final Duration retention;
+
+    public TimeEntryTombstoneStore(JdbcTemplate jdbcTemplate,
+                                   TimeEntryTombstoneRepository repository,
+                                   @Value("${sync.tombstoneRetentionDays:90}") long retentionDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.repository = repository;
+        this.retention = Duration.ofDays(retentionDays);
+    }
+
+    public void recordDeletes(Long userId, List<Long> entryIds, Instant deletedAt, long changeVersion) {
+        if (entryIds.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, entryIds, entryIds.size(), (ps, entryId) -> {
+            ps.setLong(1, userId);
+            ps.setLong(2, entryId);
+            ps.setObject(3, deletedAt.atOffset(ZoneOffset.UTC));
+            ps.setLong(4, changeVersion);
+        });
+        // Aufräumen nebenbei, wie bei den Refresh Tokens; der Index (user_id, deleted_at) hält das billig
+        repository.deleteOlderThan(userId, deletedAt.minus(retention));
+    }
+
+    /**
+     * Ids of the user's entries deleted with a change version in (after, until].
+     */
+    public List<Long> deletedIds(Long userId, long after, long until) {
+        return repository.findDeletedEntryIds(userId, after, until);
+    }
+
+    /**
+     * True if tombstones written after the given time may already have been removed.
+     */
+    public boolean isExpired(Instant since, Instant now) {
+        return since.isBefore(now.minus(retention));
+    }
+}
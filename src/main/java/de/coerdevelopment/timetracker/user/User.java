@@ -1,8 +1,12 @@
 package de.coerdevelopment.timetracker.user;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.util.Objects;
 
 @Entity
+@EntityListeners(UserCacheInvalidator.class)
 @Table(name = "users")
 public class User {
     @Id
@@ -18,6 +22,17 @@ public class User {
     @Column(nullable = false, length = 30)
     private String role = "USER";
 
+    // Wird erhöht, um alle bisher ausgestellten Tokens des Users ungültig zu machen
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private int tokenVersion;
+
+    // Zähler für ETags der Eintragsliste; nur per Bulk-Update erhöht, nie aus der Entity geschrieben,
+    // damit ein veralteter Stand im Persistence Context ihn nicht zurücksetzt
+    @ColumnDefault("0")
+    @Column(nullable = false, insertable = false, updatable = false)
+    private long entriesVersion;
+
     public User() {}
 
     public Long getId() { return id; }
@@ -25,7 +40,36 @@ public class User {
     public String getUsername() { return username; }
     public void setUsername(String username) { this.username = username; }
     public String getPassword() { return password; }
-    public void setPassword(String password) { this.password = password; }
     public String getRole() { return role; }
-    public void setRole(String role) { this.role = role; }
+
+    /**
+     * Sets a new password hash. For an existing user a changed password revokes all tokens issued so far.
+     */
+    public void setPassword(String password) {
+        revokeTokensIfChanged(this.password, password);
+        this.password = password;
+    }
+
+    /**
+     * Replaces the hash of the unchanged password, e.g. after raising the BCrypt strength; tokens stay valid.
+     */
+    public void upgradePasswordHash(String password) { this.password = password; }
+
+    /**
+     * Sets the role. For an existing user a changed role revokes all tokens issued so far, since they carry the role.
+     */
+    public void setRole(String role) {
+        revokeTokensIfChanged(this.role, role);
+        this.role = role;
+    }
+    public int getTokenVersion() { return tokenVersion; }
+    public void setTokenVersion(int tokenVersion) { this.tokenVersion = tokenVersion; }
+    public long getEntriesVersion() { return entriesVersion; }
+
+    // Neue User (ohne ID) haben noch keine Tokens
+    private void revokeTokensIfChanged(String current, String next) {
+        if (id != null && !Objects.equals(current, next)) {
+            tokenVersion++;
+        }
+    }
 }
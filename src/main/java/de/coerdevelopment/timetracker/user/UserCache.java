@@ -0,0 +1,72 @@
+package de.coerdevelopment.timetracker.user;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Read-through cache for username lookups. Only existing users are cached; unknown usernames go to the
+ * database on every lookup, so a user registered on another node is found right away. Every change that
+ * modifies a user must {@link #invalidate(String)} it; entity changes do that via {@link UserCacheInvalidator}.
+ * <p>
+ * Entries include the password hash and role. On other nodes a changed user is seen after at most
+ * {@code users.cache.ttlSeconds}; changing the role or password also raises the token version, so tokens
+ * issued with the old role are rejected there after at most {@code jwt.versionCacheSeconds}.
+ */
+@Component
+public class UserCache {
+    private final ExecutorService loader = Executors.newVirtualThreadPerTaskExecutor();
+    private final AsyncLoadingCache<String, UserSnapshot> users;
+
+    public UserCache(UserRepository userRepository,
+                     @Value("${users.cache.maxSize:10000}") long maxSize,
+                     @Value("${users.cache.ttlSeconds:300}") long ttlSeconds,
+                     MeterRegistry meterRegistry) {
+        this.users = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                // Caffeine startet das Laden innerhalb von ConcurrentHashMap.compute; die Query läuft deshalb in
+                // einem eigenen virtuellen Thread, der Aufrufer wartet per join() außerhalb des Locks
+                .executor(loader)
+                // null: Caffeine legt keinen Eintrag an, unbekannte Namen werden nicht für die TTL festgehalten
+                .buildAsync(username -> userRepository.findByUsername(username).map(UserSnapshot::of).orElse(null));
+        CaffeineCacheMetrics.monitor(meterRegistry, users, "users");
+    }
+
+    public Optional<UserSnapshot> findByUsername(String username) {
+        return Optional.ofNullable(users.get(username).join());
+    }
+
+    /**
+     * Drops the cached entry now and, inside a transaction, once more after commit, so a concurrent lookup
+     * cannot keep the state from before the change.
+     */
+    public void invalidate(String username) {
+        users.synchronous().invalidate(username);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    users.synchronous().invalidate(username);
+                }
+            });
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        loader.shutdownNow();
+    }
+}
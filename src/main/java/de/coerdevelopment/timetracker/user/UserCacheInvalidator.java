@@ -0,0 +1,35 @@
+package de.coerdevelopment.timetracker.user;
+
+import de.coerdevelopment.timetracker.security.TokenVersionCache;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+/**
+ * Entity listener that keeps {@link UserCache} and {@link TokenVersionCache} of this node in sync with every
+ * persisted change of a {@link User}. Bulk JPQL updates bypass it and must invalidate the caches themselves.
+ */
+@Component
+public class UserCacheInvalidator {
+    private final UserCache userCache;
+    private final TokenVersionCache tokenVersions;
+
+    // Lazy: Hibernate erzeugt den Listener beim Aufbau der EntityManagerFactory, die Caches brauchen das Repository
+    public UserCacheInvalidator(@Lazy UserCache userCache, @Lazy TokenVersionCache tokenVersions) {
+        this.userCache = userCache;
+        this.tokenVersions = tokenVersions;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    void changed(User user) {
+        userCache.invalidate(user.getUsername());
+        // z. B. nach einem Rollen- oder Passwortwechsel, der die Token-Version erhöht hat
+        if (user.getId() != null) {
+            tokenVersions.invalidate(user.getId());
+        }
+    }
+}
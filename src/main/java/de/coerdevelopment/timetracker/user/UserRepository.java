@@ -1,11 +1,55 @@
 package de.coerdevelopment.timetracker.user;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
     boolean existsByUsername(String username);
+    List<User> findAllByUsernameIn(Collection<String> usernames);
+
+    @Query("select u.tokenVersion from User u where u.id = :id")
+    Optional<Integer> findTokenVersionById(@Param("id") Long id);
+
+    @Modifying
+    @Query("update User u set u.tokenVersion = u.tokenVersion + 1 where u.id = :id")
+    int incrementTokenVersion(@Param("id") Long id);
+
+    @Query("select u.entriesVersion from User u where u.id = :id")
+    Optional<Long> findEntriesVersionById(@Param("id") Long id);
+
+    /**
+     * Marks the time entries of the users as changed; must run in the transaction that changes them.
+     */
+    @Modifying
+    @Query("update User u set u.entriesVersion = u.entriesVersion + 1 where u.id in :ids")
+    int incrementEntriesVersion(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Increments the entries version of the user and returns the new value, the change version of everything
+     * the calling transaction writes. The update locks the user row until commit, so writers of one user are
+     * serialized and a committed version implies that all lower versions are committed too.
+     */
+    default long nextEntriesVersion(Long id) {
+        incrementEntriesVersion(List.of(id));
+        return findEntriesVersionById(id).orElseThrow();
+    }
+
+    /**
+     * {@link #nextEntriesVersion(Long)} for several users, locked in id order so concurrent writers cannot deadlock.
+     */
+    default Map<Long, Long> nextEntriesVersions(Collection<Long> ids) {
+        Map<Long, Long> versions = new HashMap<>();
+        ids.stream().distinct().sorted().forEach(id -> versions.put(id, nextEntriesVersion(id)));
+        return versions;
+    }
 }
 
@@ -0,0 +1,11 @@
+package de.coerdevelopment.timetracker.user;
+
+/**
+ * Immutable copy of a {@link User}, safe to share between requests and threads (unlike the managed entity).
+ */
+public record UserSnapshot(Long id, String username, String password, String role, int tokenVersion) {
+
+    public static UserSnapshot of(User user) {
+        return new UserSnapshot(user.getId(), user.getUsername(), user.getPassword(), user.getRole(), user.getTokenVersion());
+    }
+}
@@ -0,0 +1,75 @@
+package de.coerdevelopment.timetracker.auth;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class RefreshTokenServiceTest {
+    @Autowired
+    private RefreshTokenService service;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void rotationReplacesTheTokenWithinTheFamily() {
+        String first = service.issue(9001L);
+        RefreshTokenService.Rotation second = service.rotate(first);
+        assertEquals(9001L, second.userId());
+        assertNotEquals(first, second.token());
+
+        RefreshTokenService.Rotation third = service.rotate(second.token());
+        assertEquals(9001L, third.userId());
+        assertThrows(BadCredentialsException.class, () -> service.rotate(second.token()));
+    }
+
+    @Test
+    void reusingAnExchangedTokenRevokesTheWholeFamily() {
+        String stolen = service.issue(9002L);
+        String current = service.rotate(stolen).token();
+        String otherDevice = service.issue(9002L);
+
+        assertThrows(BadCredentialsException.class, () -> service.rotate(stolen));
+        // auch der rechtmäßig rotierte Token derselben Anmeldung ist danach ungültig
+        assertThrows(BadCredentialsException.class, () -> service.rotate(current));
+        // andere Anmeldungen des Users bleiben gültig
+        assertEquals(9002L, service.rotate(otherDevice).userId());
+    }
+
+    @Test
+    void expiredTokenIsRejected() {
+        String token = service.issue(9003L);
+        jdbcTemplate.update("update refresh_tokens set expires_at = ? where user_id = ?",
+                Timestamp.from(Instant.now().minusSeconds(60)), 9003L);
+
+        BadCredentialsException e = assertThrows(BadCredentialsException.class, () -> service.rotate(token));
+        assertEquals("Refresh token expired", e.getMessage());
+    }
+
+    @Test
+    void unknownTokenIsRejected() {
+        assertThrows(BadCredentialsException.class, () -> service.rotate("unknown"));
+    }
+
+    @Test
+    void revokeAllInvalidatesEveryFamily() {
+        String a = service.issue(9004L);
+        String b = service.issue(9004L);
+        service.revokeAll(9004L);
+
+        assertThrows(BadCredentialsException.class, () -> service.rotate(a));
+        assertThrows(BadCredentialsException.class, () -> service.rotate(b));
+    }
+}
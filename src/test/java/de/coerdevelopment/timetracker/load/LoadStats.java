@@ -0,0 +1,85 @@
+package de.coerdevelopment.timetracker.load;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Latencies and status codes per endpoint for one phase of the load test.
+ */
+class LoadStats {
+    record EndpointReport(String phase, String endpoint, int requests, int errors, int serverErrors,
+                          double throughputPerSecond, double p50Millis, double p95Millis, double p99Millis,
+                          double maxMillis) {}
+
+    private static class Samples {
+        final ConcurrentLinkedQueue<Long> nanos = new ConcurrentLinkedQueue<>();
+        final AtomicInteger errors = new AtomicInteger();
+        final AtomicInteger serverErrors = new AtomicInteger();
+    }
+
+    private final String phase;
+    private final Map<String, Samples> endpoints = new ConcurrentHashMap<>();
+    private long startedNanos;
+    private long stoppedNanos;
+
+    LoadStats(String phase) {
+        this.phase = phase;
+    }
+
+    void start() {
+        startedNanos = System.nanoTime();
+    }
+
+    void stop() {
+        stoppedNanos = System.nanoTime();
+    }
+
+    void record(String endpoint, long nanos, int status) {
+        Samples samples = endpoints.computeIfAbsent(endpoint, k -> new Samples());
+        samples.nanos.add(nanos);
+        if (status >= 400) samples.errors.incrementAndGet();
+        if (status >= 500) samples.serverErrors.incrementAndGet();
+    }
+
+    int serverErrors() {
+        return endpoints.values().stream().mapToInt(s -> s.serverErrors.get()).sum();
+    }
+
+    List<EndpointReport> report() {
+        double seconds = Math.max(1, stoppedNanos - startedNanos) / 1e9;
+        Map<String, Samples> sorted = new LinkedHashMap<>();
+        endpoints.keySet().stream().sorted().forEach(k -> sorted.put(k, endpoints.get(k)));
+        List<EndpointReport> reports = new ArrayList<>();
+        sorted.forEach((endpoint, samples) -> {
+            long[] values = samples.nanos.stream().mapToLong(Long::longValue).sorted().toArray();
+            reports.add(new EndpointReport(phase, endpoint, values.length, samples.errors.get(),
+                    samples.serverErrors.get(), values.length / seconds,
+                    percentile(values, 50), percentile(values, 95), percentile(values, 99),
+                    values.length == 0 ? 0 : values[values.length - 1] / 1e6));
+        });
+        return reports;
+    }
+
+    // Nearest-rank-Verfahren
+    private static double percentile(long[] sorted, int p) {
+        if (sorted.length == 0) return 0;
+        int rank = (int) Math.ceil(p / 100.0 * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length, rank) - 1)] / 1e6;
+    }
+
+    static String format(List<EndpointReport> reports) {
+        StringBuilder sb = new StringBuilder(String.format("%-8s %-32s %8s %7s %9s %9s %9s %9s %9s%n",
+                "phase", "endpoint", "requests", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms"));
+        for (EndpointReport r : reports) {
+            sb.append(String.format("%-8s %-32s %8d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n", r.phase(), r.endpoint(),
+                    r.requests(), r.errors(), r.throughputPerSecond(), r.p50Millis(), r.p95Millis(), r.p99Millis(),
+                    r.maxMillis()));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,225 @@
+package de.coerdevelopment.timetracker.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * End-to-end load test against the running app on the H2 test profile.
+ * Not part of the normal build; run with {@code mvn -B -Pload test}. Size via system properties:
+ * {@code load.users}, {@code load.durationSeconds}, {@code load.importRows} (comma separated row counts).
+ * Prints p50/p95/p99 and throughput per endpoint and writes them to {@code target/load-test-report.json}.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class LoadTest {
+    private static final String PASSWORD = "load-test-password";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+
+    private record VirtualUser(String username, String token, List<Long> entryIds) {}
+
+    @Test
+    void mixedWorkload() throws Exception {
+        int users = Integer.getInteger("load.users", 16);
+        Duration duration = Duration.ofSeconds(Long.getLong("load.durationSeconds", 30));
+        int[] importRows = Arrays.stream(System.getProperty("load.importRows", "10000,100000").split(","))
+                .map(String::trim).filter(s -> !s.isEmpty()).mapToInt(Integer::parseInt).toArray();
+
+        LoadStats auth = new LoadStats("auth");
+        List<VirtualUser> virtualUsers = registerAndLogin(users, auth);
+
+        LoadStats crud = new LoadStats("crud");
+        runCrudMix(virtualUsers, duration, crud);
+
+        LoadStats imports = new LoadStats("import");
+        List<Map<String, Object>> importResults = runImports(virtualUsers.get(0), importRows, imports);
+
+        List<LoadStats.EndpointReport> report = new ArrayList<>();
+        report.addAll(auth.report());
+        report.addAll(crud.report());
+        report.addAll(imports.report());
+        System.out.println(LoadStats.format(report));
+        importResults.forEach(r -> System.out.println("import " + r));
+        writeReport(users, duration, report, importResults);
+
+        assertEquals(0, auth.serverErrors() + crud.serverErrors() + imports.serverErrors(), "5xx responses during load test");
+    }
+
+    private List<VirtualUser> registerAndLogin(int users, LoadStats stats) throws Exception {
+        List<VirtualUser> result = new ArrayList<>();
+        stats.start();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var futures = new ArrayList<Future<VirtualUser>>();
+            for (int i = 0; i < users; i++) {
+                String username = "load-" + runId + "-" + i;
+                futures.add(executor.submit(() -> {
+                    String body = objectMapper.writeValueAsString(Map.of("username", username, "password", PASSWORD));
+                    send(stats, "POST /api/auth/register", post("/api/auth/register", null, body));
+                    HttpResponse<String> login = send(stats, "POST /api/auth/login", post("/api/auth/login", null, body));
+                    String token = objectMapper.readTree(login.body()).path("token").asText();
+                    return new VirtualUser(username, token, new ArrayList<>());
+                }));
+            }
+            for (var future : futures) result.add(future.get());
+        }
+        stats.stop();
+        return result;
+    }
+
+    private void runCrudMix(List<VirtualUser> users, Duration duration, LoadStats stats) throws Exception {
+        long deadline = System.nanoTime() + duration.toNanos();
+        stats.start();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var futures = new ArrayList<Future<?>>();
+            for (VirtualUser user : users) {
+                futures.add(executor.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        crudStep(user, stats);
+                    }
+                    return null;
+                }));
+            }
+            for (var future : futures) future.get();
+        }
+        stats.stop();
+    }
+
+    // Mischung grob nach realer Nutzung: überwiegend Erfassen und Auflisten, seltener Bearbeiten und Löschen
+    private void crudStep(VirtualUser user, LoadStats stats) throws Exception {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int roll = random.nextInt(100);
+        List<Long> ids = user.entryIds();
+        if (roll < 40 || ids.isEmpty()) {
+            HttpResponse<String> created = send(stats, "POST /api/time-entries",
+                    post("/api/time-entries", user.token(), entryJson(random)));
+            if (created.statusCode() == 201) ids.add(objectMapper.readTree(created.body()).path("id").asLong());
+        } else if (roll < 75) {
+            send(stats, "GET /api/time-entries", request("/api/time-entries?limit=50", user.token()).GET().build());
+        } else if (roll < 90) {
+            long id = ids.get(random.nextInt(ids.size()));
+            send(stats, "PUT /api/time-entries/{id}", request("/api/time-entries/" + id, user.token())
+                    .header("Content-Type", "application/json")
+                    .PUT(HttpRequest.BodyPublishers.ofString(entryJson(random))).build());
+        } else {
+            long id = ids.remove(random.nextInt(ids.size()));
+            send(stats, "DELETE /api/time-entries/{id}", request("/api/time-entries/" + id, user.token()).DELETE().build());
+        }
+    }
+
+    private List<Map<String, Object>> runImports(VirtualUser user, int[] rowCounts, LoadStats stats) throws Exception {
+        List<Map<String, Object>> results = new ArrayList<>();
+        stats.start();
+        for (int rows : rowCounts) {
+            Path csv = generateCsv(rows);
+            try {
+                HttpRequest upload = request("/api/imports/time-entries/upload?username=" + user.username(), user.token())
+                        .header("Content-Type", "text/csv")
+                        .timeout(Duration.ofHours(1))
+                        .POST(HttpRequest.BodyPublishers.ofFile(csv)).build();
+                HttpResponse<String> response = send(stats, "POST /api/imports/upload (" + rows + ")", upload);
+                JsonNode body = objectMapper.readTree(response.body());
+                results.add(Map.of("rows", rows, "status", response.statusCode(),
+                        "imported", body.path("imported").asInt(), "rowsPerSecond", body.path("rowsPerSecond").asDouble()));
+            } finally {
+                Files.deleteIfExists(csv);
+            }
+        }
+        stats.stop();
+        return results;
+    }
+
+    private Path generateCsv(int rows) throws IOException {
+        Path csv = Files.createTempFile("load-import-", ".csv");
+        LocalDate start = LocalDate.of(2020, 1, 1);
+        try (BufferedWriter w = Files.newBufferedWriter(csv, StandardCharsets.UTF_8)) {
+            w.write("subject,description,dateWorked,minutesWorked\n");
+            for (int i = 0; i < rows; i++) {
+                w.write("Import " + runId + " " + i + ",Generated row " + i + "," + start.plusDays(i % 2000) + "," + (15 + i % 240) + "\n");
+            }
+        }
+        return csv;
+    }
+
+    private String entryJson(ThreadLocalRandom random) throws IOException {
+        return objectMapper.writeValueAsString(Map.of(
+                "subject", "Task " + random.nextInt(50),
+                "description", "load test",
+                "dateWorked", LocalDate.now().minusDays(random.nextInt(365)).toString(),
+                "minutesWorked", 15 + random.nextInt(480)));
+    }
+
+    private HttpRequest.Builder request(String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .timeout(Duration.ofSeconds(60));
+        return token == null ? builder : builder.header("Authorization", "Bearer " + token);
+    }
+
+    private HttpRequest post(String path, String token, String json) {
+        return request(path, token)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private HttpResponse<String> send(LoadStats stats, String endpoint, HttpRequest request) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        stats.record(endpoint, System.nanoTime() - start, response.statusCode());
+        return response;
+    }
+
+    private void writeReport(int users, Duration duration, List<LoadStats.EndpointReport> report,
+                             List<Map<String, Object>> imports) throws IOException {
+        Path target = Path.of("target", "load-test-report.json");
+        Files.createDirectories(target.getParent());
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("users", users);
+        json.put("durationSeconds", duration.toSeconds());
+        json.put("virtualThreads", virtualThreads);
+        json.put("endpoints", report);
+        json.put("imports", imports);
+        objectMapper.copy().enable(SerializationFeature.INDENT_OUTPUT).writeValue(target.toFile(), json);
+    }
+}
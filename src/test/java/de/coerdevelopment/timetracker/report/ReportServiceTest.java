@@ -0,0 +1,146 @@
+package de.coerdevelopment.timetracker.report;
+
+import de.coerdevelopment.timetracker.timeentry.TimeEntryCreateRequest;
+import de.coerdevelopment.timetracker.timeentry.TimeEntryResponse;
+import de.coerdevelopment.timetracker.timeentry.TimeEntryService;
+import de.coerdevelopment.timetracker.timeentry.TimeEntryUpdateRequest;
+import de.coerdevelopment.timetracker.user.User;
+import de.coerdevelopment.timetracker.user.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ReportServiceTest {
+    private static final LocalDate MONDAY = LocalDate.of(2024, 4, 1);
+
+    @Autowired
+    private ReportService reports;
+
+    @Autowired
+    private TimeEntryService service;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ReportRollupInitializer initializer;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void totalsFollowCreateUpdateAndDelete() {
+        createUser("report-crud");
+        TimeEntryResponse a = create("Dev", MONDAY, 30);
+        create("Dev", MONDAY, 45);
+        TimeEntryResponse c = create("Meeting", MONDAY.plusDays(1), 60);
+        assertEquals(List.of(total(MONDAY, 75, 2), total(MONDAY.plusDays(1), 60, 1)), reports.daily(MONDAY, MONDAY.plusDays(6)));
+
+        // Verschieben auf einen anderen Tag und ein anderes Thema
+        service.update(a.id(), new TimeEntryUpdateRequest("Meeting", null, MONDAY.plusDays(1), 20));
+        assertEquals(List.of(total(MONDAY, 45, 1), total(MONDAY.plusDays(1), 80, 2)), reports.daily(MONDAY, MONDAY.plusDays(6)));
+        assertEquals(List.of(new SubjectTotal("Meeting", 80, 2), new SubjectTotal("Dev", 45, 1)),
+                reports.bySubject(MONDAY, MONDAY.plusDays(6)));
+
+        service.delete(c.id());
+        assertEquals(List.of(total(MONDAY, 45, 1), total(MONDAY.plusDays(1), 20, 1)), reports.daily(MONDAY, MONDAY.plusDays(6)));
+        assertEquals(List.of(new PeriodTotal("2024-W14", MONDAY, MONDAY.plusDays(6), 65, 2)),
+                reports.weekly(MONDAY, MONDAY.plusDays(6)));
+    }
+
+    @Test
+    void deletingTheLastEntryRemovesTheDailyTotal() {
+        Long userId = createUser("report-empty");
+        TimeEntryResponse only = create("Dev", MONDAY, 30);
+        service.delete(only.id());
+        assertEquals(List.of(), reports.daily(MONDAY, MONDAY));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "select count(*) from report_daily_totals where user_id = ?", Integer.class, userId));
+    }
+
+    @Test
+    void concurrentUpdatesOfOneEntryDoNotDrift() throws Exception {
+        createUser("report-concurrent");
+        TimeEntryResponse shared = create("Dev", MONDAY, 30);
+        int threads = 6;
+        CyclicBarrier start = new CyclicBarrier(threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(executor.submit((Callable<Void>) () -> {
+                    authenticate("report-concurrent");
+                    start.await();
+                    for (int i = 1; i <= 10; i++) {
+                        service.update(shared.id(), new TimeEntryUpdateRequest("Dev", null, MONDAY, thread * 100 + i));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> f : futures) {
+                f.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        int minutes = service.get(shared.id()).minutesWorked();
+        assertEquals(List.of(total(MONDAY, minutes, 1)), reports.daily(MONDAY, MONDAY));
+    }
+
+    @Test
+    void initializerRebuildsAnEmptyTableOnlyOnce() {
+        createUser("report-rebuild");
+        create("Dev", MONDAY.plusDays(14), 30);
+        create("Dev", MONDAY.plusDays(14), 15);
+        jdbcTemplate.update("delete from report_daily_totals");
+
+        initializer.run();
+        initializer.run();
+        assertEquals(List.of(total(MONDAY.plusDays(14), 45, 2)), reports.daily(MONDAY.plusDays(14), MONDAY.plusDays(14)));
+    }
+
+    private Long createUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("unused");
+        Long id = userRepository.save(user).getId();
+        authenticate(username);
+        return id;
+    }
+
+    private TimeEntryResponse create(String subject, LocalDate day, int minutes) {
+        return service.create(new TimeEntryCreateRequest(subject, null, day, minutes));
+    }
+
+    private static PeriodTotal total(LocalDate day, long minutes, long entries) {
+        return new PeriodTotal(day.toString(), day, day, minutes, entries);
+    }
+
+    private static void authenticate(String username) {
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken(username, null, "ROLE_USER"));
+    }
+}
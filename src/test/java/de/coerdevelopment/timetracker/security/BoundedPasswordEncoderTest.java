@@ -0,0 +1,38 @@
+package de.coerdevelopment.timetracker.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BoundedPasswordEncoderTest {
+
+    @Test
+    void fullQueueFailsFastInsteadOfWaiting() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        // ein Thread, ein Warteplatz; Stärke 12 hält den Thread lange genug belegt
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(12, 1, 1, registry);
+        try {
+            CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("first"));
+            CompletableFuture<String> queued = null;
+            while (queued == null || registry.get("password.hash.queue.size").gauge().value() < 1) {
+                if (queued == null && registry.get("password.hash.queue.wait").timer().count() == 1) {
+                    queued = CompletableFuture.supplyAsync(() -> encoder.encode("second"));
+                }
+                Thread.onSpinWait();
+            }
+
+            assertThrows(PasswordHashingBusyException.class, () -> encoder.encode("third"));
+            // angenommene Aufträge laufen trotzdem zu Ende
+            String first = running.get();
+            String second = queued.get();
+            assertTrue(encoder.matches("first", first));
+            assertTrue(encoder.matches("second", second));
+        } finally {
+            encoder.shutdown();
+        }
+    }
+}
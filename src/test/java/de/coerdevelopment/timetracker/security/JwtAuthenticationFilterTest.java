@@ -0,0 +1,109 @@
+package de.coerdevelopment.timetracker.security;
+
+import de.coerdevelopment.timetracker.user.User;
+import de.coerdevelopment.timetracker.user.UserRepository;
+import de.coerdevelopment.timetracker.user.UserSnapshot;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Date;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class JwtAuthenticationFilterTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @SpyBean
+    private UserRepository userRepository;
+
+    @Value("${jwt.secret}")
+    private String secret;
+
+    @Test
+    void tokenClaimsAuthenticateWithoutLoadingTheUser() throws Exception {
+        String token = jwtService.generateToken(UserSnapshot.of(createUser("claims-only")));
+        clearInvocations(userRepository);
+
+        getEntries(token).andExpect(status().isOk());
+        getEntries(token).andExpect(status().isOk());
+
+        // nur die Token-Version wird geprüft, und die kommt beim zweiten Request aus dem Cache
+        verify(userRepository, never()).findByUsername(any());
+        verify(userRepository, never()).findById(any());
+        verify(userRepository, times(1)).findTokenVersionById(any());
+    }
+
+    @Test
+    void revokeRejectsTokensIssuedBefore() throws Exception {
+        User user = createUser("claims-revoke");
+        String token = jwtService.generateToken(UserSnapshot.of(user));
+        getEntries(token).andExpect(status().isOk());
+
+        mockMvc.perform(post("/api/auth/revoke").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isNoContent());
+
+        getEntries(token).andExpect(status().isUnauthorized());
+        UserSnapshot revoked = UserSnapshot.of(userRepository.findByUsername("claims-revoke").orElseThrow());
+        getEntries(jwtService.generateToken(revoked)).andExpect(status().isOk());
+    }
+
+    @Test
+    void legacyTokenWorksUntilTheFirstRevoke() throws Exception {
+        createUser("claims-legacy");
+        // Token im alten Format: nur der Username als Subject
+        String legacy = Jwts.builder()
+                .setSubject("claims-legacy")
+                .setIssuedAt(new Date())
+                .setExpiration(Date.from(Instant.now().plusSeconds(600)))
+                .signWith(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS256)
+                .compact();
+        getEntries(legacy).andExpect(status().isOk());
+
+        mockMvc.perform(post("/api/auth/revoke").header(HttpHeaders.AUTHORIZATION, "Bearer " + legacy))
+                .andExpect(status().isNoContent());
+        getEntries(legacy).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void invalidTokenIsUnauthorized() throws Exception {
+        getEntries("not-a-jwt").andExpect(status().isUnauthorized());
+    }
+
+    private ResultActions getEntries(String token) throws Exception {
+        return mockMvc.perform(get("/api/time-entries").header(HttpHeaders.AUTHORIZATION, "Bearer " + token));
+    }
+
+    private User createUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("unused");
+        return userRepository.save(user);
+    }
+}
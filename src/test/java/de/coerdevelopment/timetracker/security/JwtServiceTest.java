@@ -0,0 +1,71 @@
+package de.coerdevelopment.timetracker.security;
+
+import de.coerdevelopment.timetracker.user.UserSnapshot;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.security.WeakKeyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JwtServiceTest {
+    private static final String SECRET = "test-secret-with-at-least-32-bytes-for-hs256";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void verifiedClaimsAreCachedPerToken() {
+        JwtService jwtService = jwtService(3600);
+        String token = jwtService.generateToken(new UserSnapshot(7L, "jwt-cached", "unused", "ADMIN", 3));
+
+        Claims first = jwtService.extractAllClaims(token);
+        assertEquals("jwt-cached", jwtService.extractUsername(token));
+        assertSame(first, jwtService.extractAllClaims(token));
+        assertEquals(1, cacheGets("miss"));
+        assertEquals(2, cacheGets("hit"));
+
+        assertEquals(new AuthenticatedUser(7L, "jwt-cached", "ADMIN"), jwtService.toPrincipal(first).orElseThrow());
+        assertEquals(3, jwtService.tokenVersion(first));
+    }
+
+    @Test
+    void invalidTokensAreRejectedOnEveryCallAndNotCached() {
+        JwtService jwtService = jwtService(3600);
+        String token = jwtService.generateToken(new UserSnapshot(1L, "jwt-tampered", "unused", "USER", 0));
+        // Signatur eines anderen Schlüssels
+        String forged = new JwtService("another-secret-with-at-least-32-bytes-hs256", 3600, 100, 600, new SimpleMeterRegistry())
+                .generateToken(new UserSnapshot(1L, "jwt-tampered", "unused", "ADMIN", 0));
+
+        assertThrows(JwtException.class, () -> jwtService.extractAllClaims(forged));
+        assertThrows(JwtException.class, () -> jwtService.extractAllClaims(forged));
+        assertThrows(JwtException.class, () -> jwtService.extractAllClaims(token + "x"));
+        assertEquals(0, meterRegistry.get("cache.size").tag("cache", "jwtClaims").gauge().value());
+    }
+
+    @Test
+    void expiredTokensAreNotCached() {
+        JwtService jwtService = jwtService(-1);
+        String token = jwtService.generateToken(new UserSnapshot(1L, "jwt-expired", "unused", "USER", 0));
+
+        assertThrows(ExpiredJwtException.class, () -> jwtService.extractAllClaims(token));
+        assertThrows(ExpiredJwtException.class, () -> jwtService.extractAllClaims(token));
+        assertEquals(2, cacheGets("miss"));
+    }
+
+    @Test
+    void shortSecretFailsAtStartup() {
+        assertThrows(WeakKeyException.class, () -> new JwtService("too-short", 3600, 100, 600, new SimpleMeterRegistry()));
+    }
+
+    private JwtService jwtService(long expirationSeconds) {
+        return new JwtService(SECRET, expirationSeconds, 100, 600, meterRegistry);
+    }
+
+    private double cacheGets(String result) {
+        return meterRegistry.get("cache.gets").tags("cache", "jwtClaims", "result", result).functionCounter().count();
+    }
+}
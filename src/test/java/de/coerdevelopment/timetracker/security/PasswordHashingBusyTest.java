@@ -0,0 +1,71 @@
+package de.coerdevelopment.timetracker.security;
+
+import de.coerdevelopment.timetracker.timeentry.CsvImportService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class PasswordHashingBusyTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CsvImportService importService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    private BoundedPasswordEncoder passwordEncoder;
+
+    @TempDir
+    private Path dir;
+
+    @Test
+    void fullHashingQueueAnswers429WithRetryAfter() throws Exception {
+        when(passwordEncoder.encode(any())).thenThrow(new PasswordHashingBusyException());
+
+        mockMvc.perform(post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"busy-register\",\"password\":\"secret\"}"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(jsonPath("$.error").value("Too many concurrent logins, retry later"));
+    }
+
+    @Test
+    void importCreatesUsersWhileHashingIsBusy() throws Exception {
+        when(passwordEncoder.encode(any())).thenThrow(new PasswordHashingBusyException());
+        Path file = dir.resolve("busy-import.csv");
+        Files.writeString(file, "username,subject,dateWorked,minutesWorked\nbusy-import-a,Task,2024-01-01,30\n" +
+                "busy-import-b,Task,2024-01-01,30\n");
+
+        CsvImportService.ImportResult result = importService.importCsv(file, Optional.empty(), false);
+        assertEquals(2, result.imported());
+        String hash = jdbcTemplate.queryForObject("select password from users where username = ?", String.class, "busy-import-a");
+        assertTrue(hash.startsWith("$2a$"));
+    }
+}
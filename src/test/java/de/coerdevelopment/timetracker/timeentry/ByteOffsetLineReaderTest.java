@@ -0,0 +1,70 @@
+package de.coerdevelopment.timetracker.timeentry;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ByteOffsetLineReaderTest {
+
+    @Test
+    void offsetsCountBytesOfAllLineTerminators() throws IOException {
+        ByteOffsetLineReader reader = reader("a\nbä\r\nc\rd");
+        assertEquals("a", reader.readLine());
+        assertEquals(2, reader.offset());
+        assertEquals("bä", reader.readLine());
+        assertEquals(7, reader.offset()); // ä sind zwei Bytes
+        assertEquals("c", reader.readLine());
+        assertEquals(9, reader.offset());
+        assertEquals("d", reader.readLine());
+        assertEquals(10, reader.offset());
+        assertNull(reader.readLine());
+    }
+
+    @Test
+    void crlfSplitAcrossBufferBoundaryIsOneTerminator() throws IOException {
+        // \r ist das letzte Byte des ersten 64-KiB-Puffers, \n das erste des nächsten
+        String first = "x".repeat(64 * 1024 - 1);
+        ByteOffsetLineReader reader = reader(first + "\r\nnext\r\n");
+        assertEquals(first, reader.readLine());
+        assertEquals(64 * 1024 + 1, reader.offset());
+        assertEquals("next", reader.readLine());
+        assertNull(reader.readLine());
+    }
+
+    @Test
+    void skipToContinuesAtRecordedOffset() throws IOException {
+        String header = "username,subject\r\n";
+        String body = "u,\"mehr-\r\nzeilig\"\r\n" + "u,zwei\r\n" + "u," + "y".repeat(70_000) + "\r\n" + "u,ende\r\n";
+        byte[] bytes = (header + body).getBytes(StandardCharsets.UTF_8);
+
+        ByteOffsetLineReader first = new ByteOffsetLineReader(new ByteArrayInputStream(bytes));
+        first.readLine();
+        first.readLine();
+        first.readLine();
+        long afterQuotedRecord = first.offset();
+        first.readLine();
+        first.readLine();
+        long afterLongLine = first.offset();
+
+        ByteOffsetLineReader resumed = new ByteOffsetLineReader(new ByteArrayInputStream(bytes));
+        assertEquals("username,subject", resumed.readLine());
+        resumed.skipTo(afterQuotedRecord);
+        assertEquals("u,zwei", resumed.readLine());
+
+        // Ziel hinter dem gepufferten Bereich: der Rest wird im Stream übersprungen
+        ByteOffsetLineReader far = new ByteOffsetLineReader(new ByteArrayInputStream(bytes));
+        far.readLine();
+        far.skipTo(afterLongLine);
+        assertEquals("u,ende", far.readLine());
+        assertEquals(bytes.length, far.offset());
+    }
+
+    private static ByteOffsetLineReader reader(String content) {
+        return new ByteOffsetLineReader(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+    }
+}
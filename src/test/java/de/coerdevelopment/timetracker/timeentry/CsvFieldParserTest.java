@@ -0,0 +1,221 @@
+package de.coerdevelopment.timetracker.timeentry;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CsvFieldParserTest {
+    private static final ZoneId BERLIN = ZoneId.of("Europe/Berlin");
+
+    @Test
+    void parsesAllDateFormats() {
+        assertEquals(LocalDate.of(2024, 3, 15), CsvFieldParser.parseDate("2024-03-15"));
+        assertEquals(LocalDate.of(2024, 3, 15), CsvFieldParser.parseDate("15.03.2024"));
+        assertEquals(LocalDate.of(2024, 3, 15), CsvFieldParser.parseDate("03/15/2024"));
+        assertEquals(LocalDate.of(2024, 3, 15), CsvFieldParser.parseDate(" 2024-03-15 "));
+        assertEquals(LocalDate.of(0, 1, 1), CsvFieldParser.parseDate("0000-01-01"));
+        assertEquals(LocalDate.of(12345, 1, 1), CsvFieldParser.parseDate("+12345-01-01"));
+        assertEquals(LocalDate.of(-1, 1, 1), CsvFieldParser.parseDate("-0001-01-01"));
+    }
+
+    @Test
+    void resolvesDatesLikeTheFormerFormatters() {
+        // ISO (STRICT) verwirft nicht existierende Tage, dd.MM.yyyy und MM/dd/yyyy (SMART) begrenzen auf das Monatsende
+        assertNull(CsvFieldParser.parseDate("2024-02-30"));
+        assertEquals(LocalDate.of(2024, 2, 29), CsvFieldParser.parseDate("30.02.2024"));
+        assertEquals(LocalDate.of(2024, 2, 29), CsvFieldParser.parseDate("02/30/2024"));
+        assertEquals(LocalDate.of(2023, 2, 28), CsvFieldParser.parseDate("02/31/2023"));
+        assertEquals(LocalDate.of(2024, 4, 30), CsvFieldParser.parseDate("31.04.2024"));
+        assertNull(CsvFieldParser.parseDate("32.01.2024"));
+        assertNull(CsvFieldParser.parseDate("00.01.2024"));
+        assertNull(CsvFieldParser.parseDate("01.13.2024"));
+        assertNull(CsvFieldParser.parseDate("01.01.0000"));
+        assertNull(CsvFieldParser.parseDate("2024-1-01"));
+        assertNull(CsvFieldParser.parseDate("+2024-01-01"));
+    }
+
+    @Test
+    void blankValuesAreNull() {
+        assertNull(CsvFieldParser.parseDate(null));
+        assertNull(CsvFieldParser.parseDate(""));
+        assertNull(CsvFieldParser.parseDate("   "));
+        assertNull(CsvFieldParser.parseInstant(null, BERLIN));
+        assertNull(CsvFieldParser.parseInstant(" ", BERLIN));
+        assertNull(CsvFieldParser.parseInt(null));
+        assertNull(CsvFieldParser.parseInt(""));
+        assertNull(CsvFieldParser.parseInt("  "));
+    }
+
+    @Test
+    void parsesInstantsWithOffsets() {
+        assertEquals(Instant.parse("2024-01-01T10:00:00Z"), CsvFieldParser.parseInstant("2024-01-01T10:00Z", BERLIN));
+        assertEquals(Instant.parse("2024-01-01T10:00:00Z"), CsvFieldParser.parseInstant("2024-01-01t10:00:00z", BERLIN));
+        assertEquals(Instant.parse("2024-01-01T09:00:00Z"), CsvFieldParser.parseInstant("2024-01-01T10:00:00+01", BERLIN));
+        assertEquals(Instant.parse("2024-01-01T09:00:00Z"), CsvFieldParser.parseInstant("2024-01-01T10:00+01:00", BERLIN));
+        assertEquals(Instant.parse("2024-01-01T08:59:30Z"), CsvFieldParser.parseInstant("2024-01-01T10:00:00+01:00:30", BERLIN));
+        assertEquals(Instant.parse("2024-01-01T10:00:00Z"), CsvFieldParser.parseInstant("2024-01-01T10:00:00-00:00", BERLIN));
+        assertEquals(Instant.parse("2023-12-31T16:00:00Z"), CsvFieldParser.parseInstant("2024-01-01T10:00:00+18:00", BERLIN));
+        assertNull(CsvFieldParser.parseInstant("2024-01-01T10:00:00+18:01", BERLIN));
+        assertNull(CsvFieldParser.parseInstant("2024-01-01T10:00:00+0100", BERLIN));
+        assertNull(CsvFieldParser.parseInstant("2024-01-01T10:00:00+1:00", BERLIN));
+        assertNull(CsvFieldParser.parseInstant("2024-01-01T10:00:00+01:60", BERLIN));
+        assertNull(CsvFieldParser.parseInstant("2024-01-01T10:00:00+01:00[Europe/Berlin]", BERLIN));
+    }
+
+    @Test
+    void parsesFractionalSecondsUpToNanos() {
+        assertEquals(Instant.parse("2024-01-01T10:00:00.500Z"), CsvFieldParser.parseInstant("2024-01-01T10:00:00.5Z", BERLIN));
+        assertEquals(Instant.parse("2024-01-01T10:00:00.123456789Z"),
+                CsvFieldParser.parseInstant("2024-01-01T10:00:00.123456789Z", BERLIN));
+        assertEquals(Instant.parse("2024-01-01T10:00:00Z"), CsvFieldParser.parseInstant("2024-01-01T10:00:00.Z", BERLIN));
+        assertNull(CsvFieldParser.parseInstant("2024-01-01T10:00:00.1234567891Z", BERLIN));
+        assertNull(CsvFieldParser.parseInstant("2024-01-01T10:00:00,5Z", BERLIN));
+    }
+
+    @Test
+    void interpretsLocalValuesInTheGivenZone() {
+        assertEquals(Instant.parse("2024-01-01T09:00:00Z"), CsvFieldParser.parseInstant("2024-01-01T10:00", BERLIN));
+        assertEquals(Instant.parse("2024-07-01T08:00:00.250Z"), CsvFieldParser.parseInstant("2024-07-01T10:00:00.25", BERLIN));
+        // Lücke und Überlappung der Sommerzeit wie LocalDateTime.atZone
+        assertEquals(Instant.parse("2024-03-31T01:30:00Z"), CsvFieldParser.parseInstant("2024-03-31T02:30", BERLIN));
+        assertEquals(Instant.parse("2024-10-27T00:30:00Z"), CsvFieldParser.parseInstant("2024-10-27T02:30", BERLIN));
+        assertEquals(Instant.parse("2023-12-31T23:00:00Z"), CsvFieldParser.parseInstant("2024-01-01", BERLIN));
+        assertEquals(Instant.parse("2024-02-28T23:00:00Z"), CsvFieldParser.parseInstant("02/30/2024", BERLIN));
+        assertNull(CsvFieldParser.parseInstant("2024-02-30T10:00", BERLIN));
+        assertNull(CsvFieldParser.parseInstant("2024-01-01T10", BERLIN));
+    }
+
+    @Test
+    void keepsIsoInstantSpecialCases() {
+        assertEquals(Instant.parse("2024-01-02T00:00:00Z"), CsvFieldParser.parseInstant("2024-01-01T24:00:00Z", BERLIN));
+        assertEquals(Instant.parse("2024-01-01T23:59:59Z"), CsvFieldParser.parseInstant("2024-01-01T23:59:60Z", BERLIN));
+        assertNull(CsvFieldParser.parseInstant("2024-01-01T24:00Z", BERLIN));
+        assertNull(CsvFieldParser.parseInstant("2024-01-01T24:00:00", BERLIN));
+    }
+
+    @Test
+    void parsesIntegersLikeIntegerParseInt() {
+        assertEquals(30, CsvFieldParser.parseInt("30"));
+        assertEquals(30, CsvFieldParser.parseInt("+30"));
+        assertEquals(-30, CsvFieldParser.parseInt("-30"));
+        assertEquals(30, CsvFieldParser.parseInt("0000000000030"));
+        assertEquals(1, CsvFieldParser.parseInt("00000000000000000000000001"));
+        assertEquals(30, CsvFieldParser.parseInt("٣٠"));
+        assertEquals(Integer.MAX_VALUE, CsvFieldParser.parseInt("2147483647"));
+        assertEquals(Integer.MIN_VALUE, CsvFieldParser.parseInt("-2147483648"));
+        assertNull(CsvFieldParser.parseInt("2147483648"));
+        assertNull(CsvFieldParser.parseInt("-2147483649"));
+        assertNull(CsvFieldParser.parseInt("99999999999999999999"));
+        assertNull(CsvFieldParser.parseInt("+"));
+        assertNull(CsvFieldParser.parseInt("+-1"));
+        assertNull(CsvFieldParser.parseInt("1_0"));
+        assertNull(CsvFieldParser.parseInt("3.0"));
+    }
+
+    @Test
+    void matchesFormerParsersOnGeneratedValues() {
+        Random random = new Random(42);
+        for (int i = 0; i < 20_000; i++) {
+            String date = date(random);
+            assertEquals(FormerParsers.parseDate(date), CsvFieldParser.parseDate(date), date);
+            String instant = instant(random);
+            assertEquals(FormerParsers.parseInstant(instant, BERLIN), CsvFieldParser.parseInstant(instant, BERLIN), instant);
+            String number = integer(random);
+            assertEquals(FormerParsers.parseInt(number), CsvFieldParser.parseInt(number), number);
+        }
+    }
+
+    // Werte überwiegend gültig, mit eingestreuten Grenz- und Fehlerfällen
+    private static String date(Random r) {
+        String day = part(r, "%02d", 1 + r.nextInt(31), "00", "13", "32", "99", "1", "001", "0a");
+        String month = part(r, "%02d", 1 + r.nextInt(12), "00", "13", "1", "1a");
+        String year = part(r, "%d", 1900 + r.nextInt(200), "0000", "0001", "9999", "+2024", "-0001", "+12345", "12345", "202");
+        return switch (r.nextInt(4)) {
+            case 0 -> year + "-" + month + "-" + day;
+            case 1 -> day + "." + month + "." + year;
+            case 2 -> month + "/" + day + "/" + year;
+            default -> year + pick(r, "-", ".", "/") + month + pick(r, "-", ".", "/") + day;
+        };
+    }
+
+    private static String instant(Random r) {
+        if (r.nextInt(10) == 0) return date(r);
+        String time = part(r, "%02d", r.nextInt(24), "24", "25", "1", "9a")
+                + (r.nextInt(8) == 0 ? pick(r, "", ".") : ":")
+                + part(r, "%02d", r.nextInt(60), "60", "5");
+        if (r.nextInt(3) > 0) time += ":" + part(r, "%02d", r.nextInt(60), "60", "61", "5", "");
+        if (r.nextInt(3) == 0) time += "." + pick(r, "", "5", "123", "123456789", "1234567890", "12a");
+        String offset = pick(r, "", "", "", "Z", "z", "+01", "+01:00", "-05:30", "+0100", "+01:00:30", "+01:00:3",
+                "+18:00", "-18:00", "+18:01", "+19", "+01:60", "-00:00", "+1:00", "UTC", " Z", "+01:00[Europe/Berlin]");
+        String value = date(r) + (r.nextInt(8) == 0 ? pick(r, "t", " ", "") : "T") + time + offset;
+        return r.nextInt(20) == 0 ? " " + value + " " : value;
+    }
+
+    private static String integer(Random r) {
+        return pick(r, "", "", "+", "-", "+-") + pick(r, "", "", "0", "00000000000000000")
+                + pick(r, String.valueOf(r.nextInt(100_000)), "2147483647", "2147483648", "9999999999", "", "1_0", "٣٠", "3٠", "3.0");
+    }
+
+    private static String part(Random r, String format, int valid, String... invalid) {
+        return r.nextInt(8) == 0 ? pick(r, invalid) : String.format(format, valid);
+    }
+
+    private static String pick(Random r, String... values) {
+        return values[r.nextInt(values.length)];
+    }
+
+    // Parsing vor CsvFieldParser, unverändert übernommen als Referenz
+    private static final class FormerParsers {
+        private static boolean isBlank(String s) { return s == null || s.trim().isEmpty(); }
+
+        static Integer parseInt(String s) {
+            if (isBlank(s)) return null;
+            try { return Integer.parseInt(s.trim()); } catch (NumberFormatException e) { return null; }
+        }
+
+        static LocalDate parseDate(String s) {
+            if (isBlank(s)) return null;
+            List<DateTimeFormatter> fmts = List.of(
+                    DateTimeFormatter.ISO_LOCAL_DATE,
+                    DateTimeFormatter.ofPattern("dd.MM.yyyy"),
+                    DateTimeFormatter.ofPattern("MM/dd/yyyy")
+            );
+            for (DateTimeFormatter f : fmts) {
+                try { return LocalDate.parse(s.trim(), f); } catch (DateTimeException ignored) {}
+            }
+            return null;
+        }
+
+        static Instant parseInstant(String s, ZoneId zone) {
+            if (isBlank(s)) return null;
+            List<DateTimeFormatter> instantLike = List.of(
+                    DateTimeFormatter.ISO_INSTANT,
+                    DateTimeFormatter.ISO_OFFSET_DATE_TIME,
+                    DateTimeFormatter.ISO_LOCAL_DATE_TIME
+            );
+            for (DateTimeFormatter f : instantLike) {
+                try {
+                    if (f == DateTimeFormatter.ISO_LOCAL_DATE_TIME) {
+                        LocalDateTime ldt = LocalDateTime.parse(s.trim(), f);
+                        return ldt.atZone(zone).toInstant();
+                    } else {
+                        return Instant.from(f.parse(s.trim()));
+                    }
+                } catch (DateTimeException ignored) {}
+            }
+            LocalDate d = parseDate(s);
+            if (d != null) return d.atStartOfDay(zone).toInstant();
+            return null;
+        }
+    }
+}
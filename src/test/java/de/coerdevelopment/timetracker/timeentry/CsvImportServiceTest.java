@@ -0,0 +1,243 @@
+package de.coerdevelopment.timetracker.timeentry;
+
+import de.coerdevelopment.timetracker.report.DailyTotalStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doAnswer;
+
+@SpringBootTest(properties = {"import.chunkSize=10", "import.blockSize=4"})
+@ActiveProfiles("test")
+class CsvImportServiceTest {
+    @Autowired
+    private CsvImportService importService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @SpyBean
+    private DailyTotalStore dailyTotals;
+
+    @TempDir
+    private Path dir;
+
+    @Test
+    void failedChunkStopsImportAndRerunRetriesIt() throws IOException {
+        Path file = writeCsv("chunk-failure", 35);
+        // zweiter Chunk scheitert einmal, wie bei einem kurzen Datenbankausfall
+        AtomicInteger calls = new AtomicInteger();
+        doAnswer(invocation -> {
+            if (calls.incrementAndGet() == 2) {
+                throw new DataAccessResourceFailureException("database unavailable");
+            }
+            return invocation.callRealMethod();
+        }).when(dailyTotals).applyAll(anyCollection());
+
+        assertThrows(IOException.class, () -> importService.importCsv(file, Optional.empty(), false));
+        assertEquals(10, countEntries("chunk-failure"));
+
+        CsvImportService.ImportResult resumed = importService.importCsv(file, Optional.empty(), false);
+        assertEquals(11, resumed.resumedAfterRow());
+        assertEquals(25, resumed.imported());
+        assertEquals(35, countEntries("chunk-failure"));
+
+        CsvImportService.ImportResult again = importService.importCsv(file, Optional.empty(), false);
+        assertEquals(0, again.imported());
+        assertEquals(35, countEntries("chunk-failure"));
+    }
+
+    @Test
+    void resumeAfterFailedChunkContinuesBehindLastCommittedRecord() throws IOException {
+        // CRLF-Zeilenenden, mehrzeilige Felder in Anführungszeichen und Umlaute (mehrere Bytes) rund um die Chunk-Grenze
+        StringBuilder csv = new StringBuilder("username,subject,description,dateWorked,minutesWorked\r\n");
+        for (int i = 0; i < 35; i++) {
+            csv.append("resume-crlf,Task ").append(i).append(',');
+            csv.append(multiLine(i) ? "\"Zeile ä " + i + "\r\nZeile ö, \"\"zitiert\"\"\"" : "Überstunden " + i);
+            csv.append(',').append(LocalDate.of(2024, 1, 1).plusDays(i)).append(",30\r\n");
+        }
+        Path file = dir.resolve("resume-crlf.csv");
+        Files.writeString(file, csv);
+        AtomicInteger calls = new AtomicInteger();
+        doAnswer(invocation -> {
+            if (calls.incrementAndGet() == 2) {
+                throw new DataAccessResourceFailureException("database unavailable");
+            }
+            return invocation.callRealMethod();
+        }).when(dailyTotals).applyAll(anyCollection());
+
+        assertThrows(IOException.class, () -> importService.importCsv(file, Optional.empty(), false));
+        CsvImportService.ImportResult resumed = importService.importCsv(file, Optional.empty(), false);
+
+        assertEquals(11, resumed.resumedAfterRow());
+        // keine Zeile doppelt gelesen (sonst skipped > 0) und keine ausgelassen
+        assertEquals(25, resumed.imported());
+        assertEquals(0, resumed.skipped());
+        assertEquals(0, resumed.errors());
+        List<String> descriptions = jdbcTemplate.queryForList("select e.description from time_entries e " +
+                "join users u on u.id = e.user_id where u.username = 'resume-crlf' order by e.date_worked", String.class);
+        assertEquals(35, descriptions.size());
+        for (int i = 0; i < 35; i++) {
+            String expected = multiLine(i) ? "Zeile ä " + i + "\nZeile ö, \"zitiert\"" : "Überstunden " + i;
+            assertEquals(expected, descriptions.get(i));
+        }
+    }
+
+    // die letzten beiden Datensätze des ersten Chunks und die ersten beiden des zweiten sind mehrzeilig
+    private static boolean multiLine(int i) {
+        return i % 3 == 0 || (i >= 8 && i <= 11);
+    }
+
+    @Test
+    void unsortedFileIsDeduplicatedAgainstExactDates() throws IOException {
+        // Daten springen über Jahre: ein Datumsbereich pro Chunk würde fast die ganze Tabelle treffen
+        StringBuilder first = new StringBuilder("username,subject,dateWorked,minutesWorked\n");
+        StringBuilder second = new StringBuilder("username,subject,dateWorked,minutesWorked\n");
+        for (int i = 0; i < 15; i++) {
+            LocalDate date = LocalDate.of(i % 2 == 0 ? 2001 + i : 2030 - i, 1 + i % 12, 1 + i);
+            first.append("unsorted,Task ").append(i).append(',').append(date).append(",30\n");
+            second.append("unsorted,Task ").append(i).append(',').append(date).append(",30\n");
+            // gleicher Tag, andere Dauer: kein Duplikat
+            second.append("unsorted,Task ").append(i).append(',').append(date).append(",45\n");
+        }
+        Files.writeString(dir.resolve("unsorted-1.csv"), first);
+        Files.writeString(dir.resolve("unsorted-2.csv"), second);
+
+        assertEquals(15, importService.importCsv(dir.resolve("unsorted-1.csv"), Optional.empty(), false).imported());
+        CsvImportService.ImportResult result = importService.importCsv(dir.resolve("unsorted-2.csv"), Optional.empty(), false);
+        assertEquals(15, result.imported());
+        assertEquals(15, result.skipped());
+        assertEquals(30, countEntries("unsorted"));
+    }
+
+    @Test
+    void duplicatesAcrossChunksAreSkippedByTheDatabaseCheck() throws IOException {
+        StringBuilder csv = new StringBuilder("username,subject,dateWorked,minutesWorked\n");
+        for (int i = 0; i < 15; i++) {
+            csv.append("cross-chunk,Task ").append(i).append(",2024-02-").append(10 + i).append(",30\n");
+        }
+        // Wiederholung im selben Chunk und im nächsten
+        csv.append("cross-chunk,Task 14,2024-02-24,30\n");
+        csv.append("cross-chunk,Task 0,2024-02-10,30\n");
+        Path file = dir.resolve("cross-chunk.csv");
+        Files.writeString(file, csv);
+
+        CsvImportService.ImportResult result = importService.importCsv(file, Optional.empty(), false);
+        assertEquals(15, result.imported());
+        assertEquals(2, result.skipped());
+        assertEquals(15, countEntries("cross-chunk"));
+    }
+
+    @Test
+    void dryRunCountsDuplicatesAcrossChunksLikeARealRun() throws IOException {
+        StringBuilder csv = new StringBuilder("username,subject,dateWorked,minutesWorked\n");
+        for (int i = 0; i < 15; i++) {
+            csv.append("dry-cross-chunk,Task ").append(i).append(",2024-03-").append(10 + i).append(",30\n");
+        }
+        csv.append("dry-cross-chunk,Task 0,2024-03-10,30\n");
+        Path file = dir.resolve("dry-cross-chunk.csv");
+        Files.writeString(file, csv);
+
+        CsvImportService.ImportResult dryRun = importService.importCsv(file, Optional.empty(), true);
+        assertEquals(0, countEntries("dry-cross-chunk"));
+        CsvImportService.ImportResult real = importService.importCsv(file, Optional.empty(), false);
+        assertEquals(15, real.imported());
+        assertEquals(real.imported(), dryRun.imported());
+        assertEquals(real.skipped(), dryRun.skipped());
+    }
+
+    @Test
+    void abortedStreamImportClosesTheInputAndStopsTheReader() throws Exception {
+        // endloser Request-Body: ohne Abbruch würde der Reader immer weiterlesen
+        CountingStream body = new CountingStream("username,subject,dateWorked,minutesWorked\n");
+        ImportProgress cancelAfterFirstBlock = new ImportProgress() {
+            private volatile boolean updated;
+
+            @Override
+            public void update(int rowsProcessed, int imported, int skipped, int errors) {
+                updated = true;
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return updated;
+            }
+        };
+
+        assertThrows(CancellationException.class,
+                () -> importService.importCsv(body, Optional.of("stream-abort"), false, cancelAfterFirstBlock));
+        assertTrue(body.closed);
+        assertTrue(Thread.getAllStackTraces().keySet().stream().noneMatch(t -> t.getName().equals("csv-reader")));
+        long read = body.reads.get();
+        Thread.sleep(50);
+        assertEquals(read, body.reads.get());
+    }
+
+    private Path writeCsv(String username, int rows) throws IOException {
+        StringBuilder csv = new StringBuilder("username,subject,dateWorked,minutesWorked\n");
+        LocalDate start = LocalDate.of(2024, 1, 1);
+        for (int i = 0; i < rows; i++) {
+            csv.append(username).append(",Task ").append(i).append(',').append(start.plusDays(i)).append(",30\n");
+        }
+        Path file = dir.resolve(username + ".csv");
+        Files.writeString(file, csv);
+        return file;
+    }
+
+    private int countEntries(String username) {
+        return jdbcTemplate.queryForObject("select count(*) from time_entries e join users u on u.id = e.user_id " +
+                "where u.username = ?", Integer.class, username);
+    }
+
+    private static final class CountingStream extends InputStream {
+        private final byte[] header;
+        private final AtomicLong reads = new AtomicLong();
+        private volatile boolean closed;
+        private int pos;
+        private long row;
+        private byte[] current;
+
+        CountingStream(String header) {
+            this.header = header.getBytes(StandardCharsets.UTF_8);
+            this.current = this.header;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (closed) throw new IOException("Stream closed");
+            reads.incrementAndGet();
+            if (pos == current.length) {
+                current = ("stream-abort,Task " + row + "," + LocalDate.of(2024, 1, 1).plusDays(row++ % 3000) + ",30\n")
+                        .getBytes(StandardCharsets.UTF_8);
+                pos = 0;
+            }
+            return current[pos++];
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
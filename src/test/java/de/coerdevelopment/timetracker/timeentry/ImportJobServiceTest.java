@@ -0,0 +1,169 @@
+package de.coerdevelopment.timetracker.timeentry;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.doAnswer;
+
+@SpringBootTest(properties = {"import.chunkSize=10", "import.blockSize=4",
+        "import.jobs.maxConcurrent=1", "import.jobs.queueCapacity=1"})
+@ActiveProfiles("test")
+class ImportJobServiceTest {
+    @Autowired
+    private ImportJobService jobService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @SpyBean
+    private CsvImportService importService;
+
+    @TempDir
+    private Path dir;
+
+    @BeforeEach
+    void authenticate() {
+        authenticate("job-owner");
+    }
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void completedJobReportsFinalCounters() throws Exception {
+        Path file = writeCsv("job-complete", 25);
+
+        ImportJob job = jobService.submit(file, Optional.empty(), false);
+        ImportJobResponse response = awaitFinished(job);
+
+        assertEquals("COMPLETED", response.status());
+        assertEquals(25, response.rowsProcessed());
+        assertEquals(25, response.imported());
+        assertEquals(0, response.errors());
+        assertTrue(response.rowsPerSecond() > 0);
+        assertEquals(25, countEntries("job-complete"));
+    }
+
+    @Test
+    void cancelDropsQueuedJobsAndStopsRunningOnes() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        // der erste Job blockiert vor dem Import, damit der zweite in der Queue wartet
+        doAnswer(invocation -> {
+            entered.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            return invocation.callRealMethod();
+        }).when(importService).importCsv(any(Path.class), any(), anyBoolean(), any(ImportProgress.class));
+
+        ImportJob running = jobService.submit(writeCsv("job-running", 25), Optional.empty(), false);
+        assertTrue(entered.await(10, TimeUnit.SECONDS));
+        ImportJob queued = jobService.submit(writeCsv("job-queued", 5), Optional.empty(), false);
+        assertEquals(ImportJob.Status.RUNNING, running.getStatus());
+        assertEquals(ImportJob.Status.QUEUED, queued.getStatus());
+
+        ImportJobResponse dropped = jobService.cancel(queued.getId()).orElseThrow().toResponse();
+        assertEquals("CANCELLED", dropped.status());
+        assertEquals("Cancelled before start", dropped.message());
+
+        jobService.cancel(running.getId());
+        release.countDown();
+        ImportJobResponse stopped = awaitFinished(running);
+        assertEquals("CANCELLED", stopped.status());
+        assertEquals(0, countEntries("job-running"));
+        assertEquals(0, countEntries("job-queued"));
+    }
+
+    @Test
+    void fullQueueRejectsFurtherJobs() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            entered.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            return invocation.callRealMethod();
+        }).when(importService).importCsv(any(Path.class), any(), anyBoolean(), any(ImportProgress.class));
+        try {
+            ImportJob running = jobService.submit(writeCsv("job-full-a", 1), Optional.empty(), false);
+            assertTrue(entered.await(10, TimeUnit.SECONDS));
+            ImportJob queued = jobService.submit(writeCsv("job-full-b", 1), Optional.empty(), false);
+
+            Path third = writeCsv("job-full-c", 1);
+            assertThrows(RejectedExecutionException.class, () -> jobService.submit(third, Optional.empty(), false));
+
+            release.countDown();
+            assertEquals("COMPLETED", awaitFinished(running).status());
+            assertEquals("COMPLETED", awaitFinished(queued).status());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void jobsAreOnlyVisibleToTheirOwner() throws Exception {
+        ImportJob job = jobService.submit(writeCsv("job-private", 1), Optional.empty(), true);
+        awaitFinished(job);
+
+        authenticate("job-stranger");
+        assertTrue(jobService.find(job.getId()).isEmpty());
+        assertTrue(jobService.cancel(job.getId()).isEmpty());
+
+        authenticate("job-owner");
+        assertEquals(job.getId(), jobService.find(job.getId()).orElseThrow().getId());
+    }
+
+    private ImportJobResponse awaitFinished(ImportJob job) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(20);
+        while (!job.isFinished()) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Job did not finish: " + job.toResponse());
+            }
+            Thread.sleep(20);
+        }
+        return job.toResponse();
+    }
+
+    private Path writeCsv(String username, int rows) throws IOException {
+        StringBuilder csv = new StringBuilder("username,subject,dateWorked,minutesWorked\n");
+        for (int i = 0; i < rows; i++) {
+            csv.append(username).append(",Task ").append(i).append(',')
+                    .append(LocalDate.of(2024, 2, 1).plusDays(i)).append(",30\n");
+        }
+        Path file = dir.resolve(username + ".csv");
+        Files.writeString(file, csv.toString());
+        return file;
+    }
+
+    private int countEntries(String username) {
+        return jdbcTemplate.queryForObject("select count(*) from time_entries e join users u on u.id = e.user_id " +
+                "where u.username = ?", Integer.class, username);
+    }
+
+    private static void authenticate(String username) {
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken(username, null, "ROLE_USER"));
+    }
+}
@@ -0,0 +1,184 @@
+package de.coerdevelopment.timetracker.timeentry;
+
+import de.coerdevelopment.timetracker.user.User;
+import de.coerdevelopment.timetracker.user.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doAnswer;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class TimeEntryBatchServiceTest {
+    private static final LocalDate DAY = LocalDate.of(2024, 6, 3);
+
+    @Autowired
+    private TimeEntryBatchService batchService;
+
+    @Autowired
+    private TimeEntryService service;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @SpyBean
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void mixedBatchReportsEachItemAndKeepsRollupsInStep() {
+        Long userId = createUser("batch-mixed");
+        TimeEntryResponse updated = create("update me", 30);
+        TimeEntryResponse deleted = create("delete me", 45);
+
+        TimeEntryBatchResult result = batchService.apply(List.of(
+                op(TimeEntryBatchOperation.Type.CREATE, null, "new", 20),
+                op(TimeEntryBatchOperation.Type.UPDATE, updated.id(), "updated", 60),
+                op(TimeEntryBatchOperation.Type.DELETE, deleted.id(), null, null),
+                op(TimeEntryBatchOperation.Type.DELETE, Long.MAX_VALUE, null, null),
+                op(TimeEntryBatchOperation.Type.UPDATE, deleted.id(), "gone", 10),
+                op(TimeEntryBatchOperation.Type.CREATE, null, " ", 10)));
+
+        assertEquals(List.of(201, 200, 204, 404, 404, 400), statuses(result));
+        assertEquals("Time entry not found", result.results().get(3).error());
+        assertEquals("subject must not be blank", result.results().get(5).error());
+        assertEquals(Map.of("new", 20L, "updated", 60L), rollups(userId));
+        assertRollupsMatchEntries(userId);
+        assertEquals(List.of(deleted.id()), jdbcTemplate.queryForList(
+                "select entry_id from time_entry_tombstones where user_id = ?", Long.class, userId));
+    }
+
+    @Test
+    void vanishedRowsBecome404WithoutRollupDeltas() {
+        Long userId = createUser("batch-vanished");
+        TimeEntryResponse kept = create("kept", 30);
+        TimeEntryResponse vanished = create("vanished", 40);
+        TimeEntryResponse alsoVanished = create("also vanished", 50);
+        // Zeilen verschwinden zwischen dem Lesen und dem Schreiben, z. B. über einen Pfad ohne Benutzersperre
+        doAnswer(invocation -> {
+            jdbcTemplate.update("delete from time_entries where id in (?, ?)", vanished.id(), alsoVanished.id());
+            return invocation.callRealMethod();
+        }).when(jdbcTemplate).batchUpdate(argThat((String sql) -> sql != null && sql.startsWith("update time_entries")),
+                anyCollection(), anyInt(), any());
+
+        TimeEntryBatchResult result = batchService.apply(List.of(
+                op(TimeEntryBatchOperation.Type.UPDATE, kept.id(), "kept", 35),
+                op(TimeEntryBatchOperation.Type.UPDATE, vanished.id(), "vanished", 41),
+                op(TimeEntryBatchOperation.Type.DELETE, alsoVanished.id(), null, null)));
+
+        assertEquals(List.of(200, 404, 404), statuses(result));
+        assertNull(result.results().get(1).entry());
+        // die Deltas der verschwundenen Zeilen werden nicht angewendet
+        assertEquals(Map.of("kept", 35L, "vanished", 40L, "also vanished", 50L), rollups(userId));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "select count(*) from time_entry_tombstones where user_id = ?", Integer.class, userId));
+    }
+
+    @Test
+    void concurrentBatchesAndUpdatesOfOneEntryKeepRollupsConsistent() throws Exception {
+        Long userId = createUser("batch-concurrent");
+        TimeEntryResponse shared = create("shared", 30);
+        int threads = 6;
+        CyclicBarrier start = new CyclicBarrier(threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(executor.submit((Callable<Void>) () -> {
+                    authenticate("batch-concurrent");
+                    start.await();
+                    for (int i = 1; i <= 10; i++) {
+                        int minutes = thread * 100 + i;
+                        // abwechselnd Batch und einzelnes PUT auf denselben Eintrag
+                        if (i % 2 == 0) {
+                            batchService.apply(List.of(op(TimeEntryBatchOperation.Type.UPDATE, shared.id(), "shared", minutes)));
+                        } else {
+                            service.update(shared.id(), new TimeEntryUpdateRequest("shared", null, DAY, minutes));
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> f : futures) {
+                f.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertRollupsMatchEntries(userId);
+    }
+
+    private Long createUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("unused");
+        Long id = userRepository.save(user).getId();
+        authenticate(username);
+        return id;
+    }
+
+    private TimeEntryResponse create(String subject, int minutes) {
+        return service.create(new TimeEntryCreateRequest(subject, null, DAY, minutes));
+    }
+
+    private static TimeEntryBatchOperation op(TimeEntryBatchOperation.Type type, Long id, String subject, Integer minutes) {
+        return new TimeEntryBatchOperation(type, id, subject, null, type == TimeEntryBatchOperation.Type.DELETE ? null : DAY, minutes);
+    }
+
+    private static List<Integer> statuses(TimeEntryBatchResult result) {
+        return result.results().stream().map(TimeEntryBatchResult.Item::status).toList();
+    }
+
+    private Map<String, Long> rollups(Long userId) {
+        Map<String, Long> minutes = new HashMap<>();
+        jdbcTemplate.query("select subject, minutes from report_daily_totals where user_id = ?",
+                rs -> { minutes.put(rs.getString(1), rs.getLong(2)); }, userId);
+        return minutes;
+    }
+
+    private void assertRollupsMatchEntries(Long userId) {
+        List<String> rollups = jdbcTemplate.query("select date_worked, subject, minutes, entry_count from report_daily_totals " +
+                "where user_id = ? order by date_worked, subject", (rs, i) -> row(rs.getObject(1), rs.getObject(2), rs.getLong(3), rs.getLong(4)), userId);
+        List<String> entries = jdbcTemplate.query("select date_worked, subject, sum(minutes_worked), count(*) from time_entries " +
+                "where user_id = ? group by date_worked, subject order by date_worked, subject",
+                (rs, i) -> row(rs.getObject(1), rs.getObject(2), rs.getLong(3), rs.getLong(4)), userId);
+        assertEquals(entries, rollups);
+    }
+
+    private static String row(Object date, Object subject, long minutes, long count) {
+        return date + " " + subject + " " + minutes + " " + count;
+    }
+
+    private static void authenticate(String username) {
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken(username, null, "ROLE_USER"));
+    }
+}
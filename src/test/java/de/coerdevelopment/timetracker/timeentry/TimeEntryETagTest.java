@@ -0,0 +1,131 @@
+package de.coerdevelopment.timetracker.timeentry;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.coerdevelopment.timetracker.security.JwtService;
+import de.coerdevelopment.timetracker.user.User;
+import de.coerdevelopment.timetracker.user.UserRepository;
+import de.coerdevelopment.timetracker.user.UserSnapshot;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class TimeEntryETagTest {
+    private static final LocalDate DAY = LocalDate.of(2021, 5, 3);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void entryAnswers304UntilItIsUpdated() throws Exception {
+        String token = token("etag-entry");
+        Long id = create(token, "Dev", 30);
+
+        String etag = mockMvc.perform(auth(get("/api/time-entries/" + id), token))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(auth(get("/api/time-entries/" + id), token).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+
+        mockMvc.perform(auth(put("/api/time-entries/" + id), token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(new TimeEntryUpdateRequest("Dev", "länger", DAY, 45))))
+                .andExpect(status().isOk());
+
+        String changed = mockMvc.perform(auth(get("/api/time-entries/" + id), token).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(etag, changed);
+    }
+
+    @Test
+    void listAnswers304UntilAnyEntryOfTheUserChanges() throws Exception {
+        String token = token("etag-list");
+        create(token, "Dev", 30);
+
+        String etag = mockMvc.perform(auth(get("/api/time-entries"), token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(auth(get("/api/time-entries"), token).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        // andere Parameter ergeben eine andere Seite und damit ein anderes ETag
+        mockMvc.perform(auth(get("/api/time-entries").param("limit", "1"), token).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+
+        // Änderungen anderer User lassen das ETag unverändert
+        create(token("etag-list-other"), "Fremd", 10);
+        mockMvc.perform(auth(get("/api/time-entries"), token).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        create(token, "Meeting", 15);
+        mockMvc.perform(auth(get("/api/time-entries"), token).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void entryOfAnotherUserIsNotFoundEvenWithItsETag() throws Exception {
+        String owner = token("etag-owner");
+        Long id = create(owner, "Dev", 30);
+        String etag = mockMvc.perform(auth(get("/api/time-entries/" + id), owner))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(auth(get("/api/time-entries/" + id), token("etag-stranger")).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotFound());
+    }
+
+    private Long create(String token, String subject, int minutes) throws Exception {
+        String body = mockMvc.perform(auth(post("/api/time-entries"), token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(new TimeEntryCreateRequest(subject, null, DAY, minutes))))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(body, TimeEntryResponse.class).id();
+    }
+
+    private String token(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("unused");
+        return jwtService.generateToken(UserSnapshot.of(userRepository.save(user)));
+    }
+
+    private static MockHttpServletRequestBuilder auth(MockHttpServletRequestBuilder request, String token) {
+        return request.header(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+    }
+
+    private String json(Object value) throws Exception {
+        return objectMapper.writeValueAsString(value);
+    }
+}
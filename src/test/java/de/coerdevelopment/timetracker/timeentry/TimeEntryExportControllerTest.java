@@ -0,0 +1,151 @@
+package de.coerdevelopment.timetracker.timeentry;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.coerdevelopment.timetracker.security.JwtService;
+import de.coerdevelopment.timetracker.user.User;
+import de.coerdevelopment.timetracker.user.UserRepository;
+import de.coerdevelopment.timetracker.user.UserSnapshot;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class TimeEntryExportControllerTest {
+    private static final LocalDate DAY = LocalDate.of(2023, 3, 6);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TimeEntryService service;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void ndjsonExportStreamsOwnEntriesWithinTheRange() throws Exception {
+        String token = userWithEntries("export-ndjson", "USER");
+        userWithEntries("export-ndjson-other", "USER");
+
+        MvcResult result = stream(get("/api/exports/time-entries")
+                .param("from", DAY.plusDays(1).toString())
+                .param("to", DAY.plusDays(2).toString()), token);
+        assertEquals("application/x-ndjson", result.getResponse().getContentType());
+        assertTrue(result.getResponse().getHeader(HttpHeaders.CONTENT_DISPOSITION).contains("time-entries-export-ndjson.ndjson"));
+
+        List<JsonNode> rows = new ArrayList<>();
+        for (String line : result.getResponse().getContentAsString().split("\n")) {
+            rows.add(objectMapper.readTree(line));
+        }
+        // neueste zuerst, nur eigene Einträge zwischen from und to
+        assertEquals(2, rows.size());
+        assertEquals(List.of(DAY.plusDays(2).toString(), DAY.plusDays(1).toString()),
+                rows.stream().map(r -> r.get("dateWorked").asText()).toList());
+        assertTrue(rows.stream().allMatch(r -> r.get("username").asText().equals("export-ndjson")));
+        assertEquals(List.of(45, 30), rows.stream().map(r -> r.get("minutesWorked").asInt()).toList());
+    }
+
+    @Test
+    void csvExportWritesHeaderAndQuotesFields() throws Exception {
+        String token = userWithEntries("export-csv", "USER");
+
+        MvcResult result = stream(get("/api/exports/time-entries")
+                .param("format", "CSV")
+                .param("to", DAY.toString()), token);
+        assertEquals("text/csv;charset=UTF-8", result.getResponse().getContentType());
+
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+        assertEquals("id,username,subject,description,dateWorked,minutesWorked,createdAt,updatedAt", lines[0]);
+        assertEquals(2, lines.length);
+        assertTrue(lines[1].contains(",export-csv,\"Dev, first\",,2023-03-06,15,"), lines[1]);
+    }
+
+    @Test
+    void exportOfAllUsersIsAdminOnly() throws Exception {
+        String userToken = userWithEntries("export-all-user", "USER");
+        String adminToken = userWithEntries("export-all-admin", "ADMIN");
+
+        mockMvc.perform(get("/api/exports/time-entries/all").header(HttpHeaders.AUTHORIZATION, "Bearer " + userToken))
+                .andExpect(status().isForbidden());
+
+        MvcResult result = stream(get("/api/exports/time-entries/all")
+                .param("from", DAY.toString())
+                .param("to", DAY.toString()), adminToken);
+        String body = result.getResponse().getContentAsString();
+        assertTrue(body.contains("\"username\":\"export-all-user\""));
+        assertTrue(body.contains("\"username\":\"export-all-admin\""));
+    }
+
+    @Test
+    void unsupportedFormatIsRejected() throws Exception {
+        String token = userWithEntries("export-format", "USER");
+
+        mockMvc.perform(get("/api/exports/time-entries")
+                        .param("format", "xml")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Unsupported format: xml"));
+    }
+
+    // Der Body wird asynchron geschrieben; erst der Async-Dispatch liefert die Antwort
+    private MvcResult stream(MockHttpServletRequestBuilder builder, String token) throws Exception {
+        MvcResult started = mockMvc.perform(builder.header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.CONTENT_DISPOSITION))
+                .andReturn();
+    }
+
+    // Legt den User mit drei Einträgen an drei Tagen an und gibt ein Access Token zurück
+    private String userWithEntries(String username, String role) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("unused");
+        user.setRole(role);
+        userRepository.save(user);
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken(username, null, "ROLE_" + role));
+        service.create(new TimeEntryCreateRequest("Dev, first", null, DAY, 15));
+        service.create(new TimeEntryCreateRequest("Dev", null, DAY.plusDays(1), 30));
+        service.create(new TimeEntryCreateRequest("Meeting", "Planung", DAY.plusDays(2), 45));
+        SecurityContextHolder.clearContext();
+        return jwtService.generateToken(UserSnapshot.of(user));
+    }
+}
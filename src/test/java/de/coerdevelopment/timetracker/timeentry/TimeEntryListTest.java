@@ -0,0 +1,129 @@
+package de.coerdevelopment.timetracker.timeentry;
+
+import de.coerdevelopment.timetracker.user.User;
+import de.coerdevelopment.timetracker.user.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class TimeEntryListTest {
+    private static final LocalDate DAY = LocalDate.of(2022, 9, 1);
+
+    @Autowired
+    private TimeEntryService service;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void pagesCoverAllEntriesOnceInDateThenIdOrder() {
+        createUser("list-other");
+        create("Fremd", DAY, 10);
+        createUser("list-pages");
+        List<TimeEntryResponse> created = new ArrayList<>();
+        // mehrere Einträge pro Tag, damit Seitengrenzen mitten in einem Tag liegen
+        for (int i = 0; i < 11; i++) {
+            created.add(create("Task " + i, DAY.plusDays(i / 3), 10 + i));
+        }
+
+        List<TimeEntryResponse> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            TimeEntryPage page = service.list(cursor, 4, null, null, null);
+            seen.addAll(page.items());
+            cursor = page.nextCursor();
+            pages++;
+            // ein neuer Eintrag vor der aktuellen Position verschiebt die folgenden Seiten nicht
+            if (pages == 1) {
+                create("Spät", DAY.plusDays(30), 5);
+            }
+        } while (cursor != null);
+
+        assertEquals(3, pages);
+        created.sort(Comparator.comparing(TimeEntryResponse::dateWorked).thenComparing(TimeEntryResponse::id).reversed());
+        assertEquals(ids(created), ids(seen));
+    }
+
+    @Test
+    void lastFullPageHasNoCursor() {
+        createUser("list-exact");
+        for (int i = 0; i < 4; i++) {
+            create("Task", DAY.plusDays(i), 10);
+        }
+        TimeEntryPage page = service.list(null, 4, null, null, null);
+        assertEquals(4, page.items().size());
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    void filtersByDateRangeAndSubjectPrefix() {
+        createUser("list-filter");
+        TimeEntryResponse percent = create("50% Dev", DAY, 10);
+        create("50 Dev", DAY, 10);
+        TimeEntryResponse underscore = create("a_b", DAY.plusDays(1), 10);
+        create("axb", DAY.plusDays(1), 10);
+        TimeEntryResponse dev = create("Dev", DAY.plusDays(2), 10);
+        create("Dev", DAY.plusDays(5), 10);
+
+        // LIKE-Platzhalter im Präfix gelten wörtlich
+        assertEquals(List.of(percent.id()), ids(service.list(null, 10, null, null, "50%").items()));
+        assertEquals(List.of(underscore.id()), ids(service.list(null, 10, null, null, "a_").items()));
+        assertEquals(List.of(dev.id()), ids(service.list(null, 10, DAY.plusDays(1), DAY.plusDays(4), "Dev").items()));
+        assertEquals(3, service.list(null, 10, DAY.plusDays(1), DAY.plusDays(2), null).items().size());
+    }
+
+    @Test
+    void limitIsCappedAndInvalidParametersAreRejected() {
+        createUser("list-limits");
+        for (int i = 0; i < TimeEntryService.MAX_PAGE_SIZE + 1; i++) {
+            create("Task", DAY, 1);
+        }
+        TimeEntryPage page = service.list(null, 10_000, null, null, null);
+        assertEquals(TimeEntryService.MAX_PAGE_SIZE, page.items().size());
+        assertEquals(1, service.list(page.nextCursor(), 10_000, null, null, null).items().size());
+
+        assertEquals("limit must be positive",
+                assertThrows(IllegalArgumentException.class, () -> service.list(null, 0, null, null, null)).getMessage());
+        assertEquals("from must not be after to",
+                assertThrows(IllegalArgumentException.class, () -> service.list(null, 10, DAY, DAY.minusDays(1), null)).getMessage());
+        assertEquals("Invalid cursor",
+                assertThrows(IllegalArgumentException.class, () -> service.list("bm9wZQ", 10, null, null, null)).getMessage());
+    }
+
+    private void createUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("unused");
+        userRepository.save(user);
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken(username, null, "ROLE_USER"));
+    }
+
+    private TimeEntryResponse create(String subject, LocalDate day, int minutes) {
+        return service.create(new TimeEntryCreateRequest(subject, null, day, minutes));
+    }
+
+    private static List<Long> ids(List<TimeEntryResponse> entries) {
+        return entries.stream().map(TimeEntryResponse::id).toList();
+    }
+}
@@ -0,0 +1,100 @@
+package de.coerdevelopment.timetracker.timeentry;
+
+import de.coerdevelopment.timetracker.user.User;
+import de.coerdevelopment.timetracker.user.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class TimeEntryReadPathTest {
+    private static final LocalDate DAY = LocalDate.of(2020, 11, 2);
+
+    @Autowired
+    private TimeEntryService service;
+
+    @Autowired
+    private TimeEntryRepository repository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager txManager;
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void projectionsCarryTheSameFieldsAsTheEntity() {
+        createUser("read-fields");
+        TimeEntryResponse created = service.create(new TimeEntryCreateRequest("Dev", "Beschreibung", DAY, 30));
+
+        TimeEntryResponse fromEntity = new TransactionTemplate(txManager).execute(status ->
+                TimeEntryService.toResponse(repository.findById(created.id()).orElseThrow()));
+        assertEquals(fromEntity, service.get(created.id()));
+        assertEquals(List.of(fromEntity), service.list(null, 10, null, null, null).items());
+        assertEquals(List.of(fromEntity), service.changes(null, 10).changed());
+    }
+
+    @Test
+    void readsDoNotLoadEntitiesIntoThePersistenceContext() {
+        createUser("read-unmanaged");
+        TimeEntryResponse created = service.create(new TimeEntryCreateRequest("Dev", null, DAY, 30));
+        service.create(new TimeEntryCreateRequest("Meeting", null, DAY, 15));
+
+        new TransactionTemplate(txManager).executeWithoutResult(status -> {
+            service.get(created.id());
+            service.list(null, 10, null, null, null);
+            service.changes(null, 10);
+            assertEquals(0, managedEntities());
+
+            // Gegenprobe: der Schreibpfad lädt die Entity
+            repository.findById(created.id()).orElseThrow();
+            assertEquals(1, managedEntities());
+        });
+    }
+
+    @Test
+    void entryOfAnotherUserIsNotFound() {
+        createUser("read-owner");
+        TimeEntryResponse created = service.create(new TimeEntryCreateRequest("Dev", null, DAY, 30));
+
+        createUser("read-stranger");
+        assertThrows(NoSuchElementException.class, () -> service.get(created.id()));
+        assertEquals(List.of(), service.list(null, 10, null, null, null).items());
+    }
+
+    private int managedEntities() {
+        return entityManager.unwrap(Session.class).getStatistics().getEntityCount();
+    }
+
+    private void createUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("unused");
+        userRepository.save(user);
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken(username, null, "ROLE_USER"));
+    }
+}
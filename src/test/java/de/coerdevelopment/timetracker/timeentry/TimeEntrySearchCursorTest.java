@@ -0,0 +1,56 @@
+package de.coerdevelopment.timetracker.timeentry;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimeEntrySearchCursorTest {
+
+    @Test
+    void roundTripKeepsRankBitsAndId() {
+        float[] ranks = {0f, 0.4f, 1.0f, 1.0f + 0.4f, 0.4f + 0.4f + 0.4f, 0.0607927f, Float.MIN_VALUE, Float.MAX_VALUE};
+        long[] ids = {0, 1, 42, Long.MAX_VALUE};
+        for (float rank : ranks) {
+            for (long id : ids) {
+                TimeEntrySearchCursor cursor = new TimeEntrySearchCursor(rank, id);
+                TimeEntrySearchCursor decoded = TimeEntrySearchCursor.decode(cursor.encode());
+                assertEquals(Float.floatToIntBits(rank), Float.floatToIntBits(decoded.rank()));
+                assertEquals(id, decoded.id());
+            }
+        }
+        assertEquals(TimeEntrySearchCursor.START, TimeEntrySearchCursor.decode(TimeEntrySearchCursor.START.encode()));
+    }
+
+    @Test
+    void encodedFormIsUrlSafe() {
+        String encoded = new TimeEntrySearchCursor(1.4f, Long.MAX_VALUE).encode();
+        assertTrue(encoded.matches("[A-Za-z0-9_-]+"), encoded);
+    }
+
+    @Test
+    void ordersByRankDescThenIdDesc() {
+        TimeEntrySearchCursor cursor = new TimeEntrySearchCursor(1.0f, 10);
+        assertTrue(cursor.isBefore(0.4f, 99));
+        assertTrue(cursor.isBefore(1.0f, 9));
+        assertFalse(cursor.isBefore(1.0f, 10));
+        assertFalse(cursor.isBefore(1.0f, 11));
+        assertFalse(cursor.isBefore(1.4f, 1));
+        assertTrue(TimeEntrySearchCursor.START.isBefore(Float.MAX_VALUE, Long.MAX_VALUE - 1));
+    }
+
+    @Test
+    void rejectsMalformedCursors() {
+        for (String raw : new String[]{"", "3f800000", "3f800000_", "zz_1", "3f800000_x", "_1", "1ffffffff_1"}) {
+            String cursor = Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> TimeEntrySearchCursor.decode(cursor), raw);
+            assertEquals("Invalid cursor", e.getMessage());
+        }
+        assertThrows(IllegalArgumentException.class, () -> TimeEntrySearchCursor.decode("not base64!"));
+    }
+}
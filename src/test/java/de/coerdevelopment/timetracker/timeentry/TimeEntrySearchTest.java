@@ -0,0 +1,133 @@
+package de.coerdevelopment.timetracker.timeentry;
+
+import de.coerdevelopment.timetracker.user.User;
+import de.coerdevelopment.timetracker.user.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Läuft auf H2, also über den In-Memory-TermIndex von TimeEntrySearchStore
+@SpringBootTest
+@ActiveProfiles("test")
+class TimeEntrySearchTest {
+    private static final LocalDate FROM = LocalDate.of(2024, 1, 1);
+    private static final LocalDate TO = LocalDate.of(2024, 12, 31);
+
+    @Autowired
+    private TimeEntryService service;
+
+    @Autowired
+    private TimeEntrySearchStore store;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager txManager;
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void subjectMatchesRankAboveDescriptionMatches() {
+        Long userId = signUp("search-rank");
+        TimeEntryResponse inDescription = create("Daily", "Abstimmung zu ABC-123", LocalDate.of(2024, 5, 1));
+        TimeEntryResponse inSubject = create("ABC-123 umsetzen", null, LocalDate.of(2024, 5, 2));
+        TimeEntryResponse inBoth = create("abc-123 review", "Review von ABC-123", LocalDate.of(2024, 5, 3));
+        create("Sonstiges", "nichts", LocalDate.of(2024, 5, 4));
+
+        List<TermIndex.Hit> hits = search(userId, "abc-123", FROM, TO, 10);
+
+        assertEquals(List.of(inBoth.id(), inSubject.id(), inDescription.id()), ids(hits));
+        assertEquals(List.of(2.8f, 2.0f, 0.8f), hits.stream().map(TermIndex.Hit::rank).toList());
+    }
+
+    @Test
+    void allTermsMustMatchWithinTheDateRange() {
+        Long userId = signUp("search-filter");
+        TimeEntryResponse both = create("Kunde Müller", "Angebot geschrieben", LocalDate.of(2024, 3, 1));
+        create("Kunde Müller", "Telefonat", LocalDate.of(2024, 3, 2));
+        create("Kunde Schmidt", "Angebot geschrieben", LocalDate.of(2024, 3, 3));
+        create("Kunde Müller", "Angebot überarbeitet", LocalDate.of(2023, 3, 1));
+
+        assertEquals(List.of(both.id()), ids(search(userId, "müller angebot", FROM, TO, 10)));
+        assertEquals(List.of(), ids(search(userId, "müller unbekannt", FROM, TO, 10)));
+    }
+
+    @Test
+    void writesRebuildTheIndex() {
+        Long userId = signUp("search-rebuild");
+        TimeEntryResponse first = create("Migration", null, LocalDate.of(2024, 6, 1));
+        assertEquals(List.of(first.id()), ids(search(userId, "migration", FROM, TO, 10)));
+
+        TimeEntryResponse second = create("Migration Teil 2", null, LocalDate.of(2024, 6, 2));
+        service.delete(first.id());
+        service.update(second.id(), new TimeEntryUpdateRequest("Umzug Teil 2", null, second.dateWorked(), 30));
+
+        assertEquals(List.of(), ids(search(userId, "migration", FROM, TO, 10)));
+        assertEquals(List.of(second.id()), ids(search(userId, "umzug", FROM, TO, 10)));
+    }
+
+    @Test
+    void cursorPagesThroughAllHitsWithoutGapsOrDuplicates() {
+        signUp("search-pages");
+        List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            // gleicher Rang für mehrere Treffer: die id entscheidet die Reihenfolge
+            expected.add(create("Wartung " + i, i % 2 == 0 ? "Wartung" : null, LocalDate.of(2024, 7, 1 + i)).id());
+        }
+        TimeEntryPage all = service.search("wartung", null, 50, null, null);
+        assertNull(all.nextCursor());
+        assertEquals(new HashSet<>(expected), new HashSet<>(all.items().stream().map(TimeEntryResponse::id).toList()));
+
+        List<Long> paged = new ArrayList<>();
+        String cursor = null;
+        do {
+            TimeEntryPage page = service.search("wartung", cursor, 3, null, null);
+            assertTrue(page.items().size() <= 3);
+            page.items().forEach(e -> paged.add(e.id()));
+            cursor = page.nextCursor();
+        } while (cursor != null);
+        assertEquals(all.items().stream().map(TimeEntryResponse::id).toList(), paged);
+    }
+
+    private List<TermIndex.Hit> search(Long userId, String query, LocalDate from, LocalDate to, int limit) {
+        TransactionTemplate tx = new TransactionTemplate(txManager);
+        tx.setReadOnly(true);
+        return tx.execute(status -> store.search(userId, query, from, to, TimeEntrySearchCursor.START, limit));
+    }
+
+    private TimeEntryResponse create(String subject, String description, LocalDate date) {
+        return service.create(new TimeEntryCreateRequest(subject, description, date, 30));
+    }
+
+    private static List<Long> ids(List<TermIndex.Hit> hits) {
+        return hits.stream().map(h -> h.entry().id()).toList();
+    }
+
+    private Long signUp(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("unused");
+        Long id = userRepository.save(user).getId();
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken(username, null, "ROLE_USER"));
+        return id;
+    }
+}
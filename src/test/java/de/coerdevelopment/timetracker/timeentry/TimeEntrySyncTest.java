@@ -0,0 +1,122 @@
+package de.coerdevelopment.timetracker.timeentry;
+
+import de.coerdevelopment.timetracker.user.User;
+import de.coerdevelopment.timetracker.user.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class TimeEntrySyncTest {
+    @Autowired
+    private CsvImportService importService;
+
+    @Autowired
+    private TimeEntryService service;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @TempDir
+    private Path dir;
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void importedEntriesWithOldUpdatedAtShowUpAfterEarlierSync() throws IOException {
+        importService.importCsv(writeCsv("sync-import", "first", 3), Optional.empty(), false);
+        authenticate("sync-import");
+        TimeEntryChanges initial = service.changes(null, 100);
+        assertEquals(3, initial.changed().size());
+
+        // updatedAt aus der Datei liegt Jahre vor dem letzten Sync
+        importService.importCsv(writeCsv("sync-import", "second", 2), Optional.empty(), false);
+        TimeEntryChanges delta = service.changes(initial.nextToken(), 100);
+        assertEquals(List.of("second 0", "second 1"), subjects(delta.changed()));
+        assertFalse(delta.hasMore());
+
+        TimeEntryChanges none = service.changes(delta.nextToken(), 100);
+        assertTrue(none.changed().isEmpty());
+        assertTrue(none.deletedIds().isEmpty());
+    }
+
+    @Test
+    void pagesAndDeletionsFollowTheChangeVersion() {
+        authenticate("sync-crud");
+        User user = new User();
+        user.setUsername("sync-crud");
+        user.setPassword("unused");
+        userRepository.save(user);
+        TimeEntryResponse a = create("a");
+        TimeEntryResponse b = create("b");
+        TimeEntryResponse c = create("c");
+        TimeEntryChanges first = service.changes(null, 2);
+        assertEquals(List.of("a", "b"), subjects(first.changed()));
+        assertTrue(first.hasMore());
+        TimeEntryChanges second = service.changes(first.nextToken(), 2);
+        assertEquals(List.of("c"), subjects(second.changed()));
+        assertFalse(second.hasMore());
+
+        service.update(a.id(), new TimeEntryUpdateRequest("a2", null, a.dateWorked(), 15));
+        service.delete(b.id());
+        TimeEntryChanges delta = service.changes(second.nextToken(), 100);
+        assertEquals(List.of("a2"), subjects(delta.changed()));
+        assertEquals(List.of(b.id()), delta.deletedIds());
+        assertEquals(c.id(), service.get(c.id()).id());
+    }
+
+    @Test
+    void tokenOfTheFormerUpdatedAtFormatRequiresFullResync() {
+        authenticate("sync-legacy");
+        String legacy = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("2024-01-01T00:00:00Z_42".getBytes(StandardCharsets.UTF_8));
+        assertThrows(SyncTokenExpiredException.class, () -> service.changes(legacy, 100));
+        assertThrows(IllegalArgumentException.class, () -> service.changes("not-a-token", 100));
+    }
+
+    private TimeEntryResponse create(String subject) {
+        return service.create(new TimeEntryCreateRequest(subject, null, LocalDate.of(2024, 3, 1), 30));
+    }
+
+    private static List<String> subjects(List<TimeEntryResponse> entries) {
+        return entries.stream().map(TimeEntryResponse::subject).toList();
+    }
+
+    private static void authenticate(String username) {
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken(username, null, "ROLE_USER"));
+    }
+
+    private Path writeCsv(String username, String prefix, int rows) throws IOException {
+        StringBuilder csv = new StringBuilder("username,subject,dateWorked,minutesWorked,updatedAt\n");
+        for (int i = 0; i < rows; i++) {
+            csv.append(username).append(',').append(prefix).append(' ').append(i)
+                    .append(",2019-05-0").append(i + 1).append(",30,2019-05-0").append(i + 1).append("T08:00:00Z\n");
+        }
+        Path file = dir.resolve(username + "-" + prefix + ".csv");
+        Files.writeString(file, csv);
+        return file;
+    }
+}
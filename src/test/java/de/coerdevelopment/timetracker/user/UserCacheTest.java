@@ -0,0 +1,91 @@
+package de.coerdevelopment.timetracker.user;
+
+import de.coerdevelopment.timetracker.security.TokenVersionCache;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class UserCacheTest {
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private TokenVersionCache tokenVersions;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager txManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void unknownUsernameIsNotCached() {
+        assertTrue(userCache.findByUsername("cache-late").isEmpty());
+
+        // an der Entity vorbei, wie ein Insert auf einem anderen Knoten: keine Invalidierung
+        jdbcTemplate.update("insert into users (username, password, role, token_version, entries_version) " +
+                "values ('cache-late', 'unused', 'USER', 0, 0)");
+
+        assertEquals("cache-late", userCache.findByUsername("cache-late").orElseThrow().username());
+    }
+
+    @Test
+    void roleChangeRefreshesTheCacheAndRevokesIssuedTokens() {
+        UserSnapshot before = cachedUser("cache-role");
+        assertTrue(tokenVersions.isCurrent(before.id(), before.tokenVersion()));
+
+        modify("cache-role", u -> u.setRole("ADMIN"));
+
+        UserSnapshot after = userCache.findByUsername("cache-role").orElseThrow();
+        assertEquals("ADMIN", after.role());
+        assertEquals(before.tokenVersion() + 1, after.tokenVersion());
+        assertFalse(tokenVersions.isCurrent(before.id(), before.tokenVersion()));
+    }
+
+    @Test
+    void passwordChangeRevokesTokensButHashUpgradeDoesNot() {
+        UserSnapshot before = cachedUser("cache-password");
+
+        modify("cache-password", u -> u.upgradePasswordHash("rehashed"));
+        UserSnapshot upgraded = userCache.findByUsername("cache-password").orElseThrow();
+        assertEquals("rehashed", upgraded.password());
+        assertTrue(tokenVersions.isCurrent(before.id(), before.tokenVersion()));
+
+        modify("cache-password", u -> u.setPassword("changed"));
+        UserSnapshot changed = userCache.findByUsername("cache-password").orElseThrow();
+        assertEquals("changed", changed.password());
+        assertFalse(tokenVersions.isCurrent(before.id(), before.tokenVersion()));
+    }
+
+    // Legt den User an und lädt ihn in beide Caches
+    private UserSnapshot cachedUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("initial");
+        userRepository.save(user);
+        UserSnapshot snapshot = userCache.findByUsername(username).orElseThrow();
+        assertEquals(0, snapshot.tokenVersion());
+        tokenVersions.isCurrent(snapshot.id(), snapshot.tokenVersion());
+        return snapshot;
+    }
+
+    private void modify(String username, Consumer<User> change) {
+        new TransactionTemplate(txManager).executeWithoutResult(status ->
+                change.accept(userRepository.findByUsername(username).orElseThrow()));
+    }
+}